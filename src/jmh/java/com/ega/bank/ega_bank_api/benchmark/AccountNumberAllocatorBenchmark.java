@@ -0,0 +1,43 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.service.AccountNumberAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocation throughput with an in-memory block source, i.e. the cost of the lock-free fast path
+ * and the check-digit arithmetic. Database refills happen once per {@code blockSize} numbers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountNumberAllocatorBenchmark {
+
+    @Param({"1000"})
+    public int blockSize;
+
+    private AccountNumberAllocator allocator;
+
+    @Setup
+    public void setup() {
+        AtomicLong sequence = new AtomicLong(1);
+        allocator = new AccountNumberAllocator(size -> sequence.getAndAdd(size), blockSize, "30001", "00001");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String singleThread() {
+        return allocator.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String eightThreads() {
+        return allocator.next();
+    }
+}
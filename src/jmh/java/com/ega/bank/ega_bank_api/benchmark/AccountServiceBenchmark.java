@@ -0,0 +1,85 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.EgaBankApiApplication;
+import com.ega.bank.ega_bank_api.model.AccountType;
+import com.ega.bank.ega_bank_api.model.Client;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.repository.ClientRepository;
+import com.ega.bank.ega_bank_api.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-level cost of a deposit, a withdrawal and a transfer against the embedded H2 database,
+ * without HTTP or security: account lookup, balance update, transaction insert and checkpointing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    private static final Money AMOUNT = Money.of("0.01");
+
+    @Param({"100"})
+    public int accounts;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private String[] numbers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(EgaBankApiApplication.class)
+                .run("--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN");
+        accountService = context.getBean(AccountService.class);
+
+        Client client = new Client();
+        client.setFirstName("Bench");
+        client.setLastName("Client");
+        client.setBirthDate(LocalDate.of(1990, 1, 1));
+        client.setGender("F");
+        client.setAddress("Here");
+        client.setPhone("+33111111111");
+        client.setEmail("bench@example.com");
+        client.setNationality("FR");
+        Long clientId = context.getBean(ClientRepository.class).save(client).getId();
+
+        numbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            numbers[i] = accountService.createAccount(clientId, AccountType.CHECKING).getAccountNumber();
+            accountService.deposit(numbers[i], Money.of("1000000"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Transaction deposit() {
+        return accountService.deposit(numbers[ThreadLocalRandom.current().nextInt(accounts)], AMOUNT);
+    }
+
+    @Benchmark
+    public Transaction withdraw() {
+        return accountService.withdraw(numbers[ThreadLocalRandom.current().nextInt(accounts)], AMOUNT);
+    }
+
+    @Benchmark
+    public Transaction transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+        return accountService.transfer(numbers[from], numbers[to], AMOUNT);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.EgaBankApiApplication;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.engine.BalanceEngine;
+import com.ega.bank.ega_bank_api.model.AccountType;
+import com.ega.bank.ega_bank_api.model.Client;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.repository.ClientRepository;
+import com.ega.bank.ega_bank_api.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The row-locking {@link AccountService} path against the sharded {@link BalanceEngine}, from 16
+ * threads, on the embedded H2 database. {@code accounts=1} is a single hot account (every call
+ * contends on one row); {@code accounts=1000} spreads the load. Transfers pick random pairs, so
+ * most of them cross shards.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class BalanceEngineBenchmark {
+
+    private static final Money AMOUNT = Money.of("0.01");
+
+    @Param({"1", "1000"})
+    public int accounts;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private BalanceEngine engine;
+    private String[] numbers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(EgaBankApiApplication.class)
+                .run("--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+                        "--engine.enabled=true", "--spring.datasource.hikari.maximum-pool-size=24");
+        accountService = context.getBean(AccountService.class);
+        engine = context.getBean(BalanceEngine.class);
+
+        Client client = new Client();
+        client.setFirstName("Bench");
+        client.setLastName("Client");
+        client.setBirthDate(LocalDate.of(1990, 1, 1));
+        client.setGender("F");
+        client.setAddress("Here");
+        client.setPhone("+33111111111");
+        client.setEmail("bench@example.com");
+        client.setNationality("FR");
+        Long clientId = context.getBean(ClientRepository.class).save(client).getId();
+
+        // one extra account so that transfers always have a counterpart, even with accounts=1
+        numbers = new String[accounts + 1];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = accountService.createAccount(clientId, AccountType.CHECKING).getAccountNumber();
+            accountService.deposit(numbers[i], Money.of("100000000"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Transaction serviceDeposit() {
+        return accountService.deposit(hot(), AMOUNT);
+    }
+
+    @Benchmark
+    public TransactionView engineDeposit() {
+        return BalanceEngine.await(engine.deposit(hot(), AMOUNT));
+    }
+
+    @Benchmark
+    public Transaction serviceWithdraw() {
+        return accountService.withdraw(hot(), AMOUNT);
+    }
+
+    @Benchmark
+    public TransactionView engineWithdraw() {
+        return BalanceEngine.await(engine.withdraw(hot(), AMOUNT));
+    }
+
+    @Benchmark
+    public Transaction serviceTransfer() {
+        String[] pair = pair();
+        return accountService.transfer(pair[0], pair[1], AMOUNT);
+    }
+
+    @Benchmark
+    public TransactionView engineTransfer() {
+        String[] pair = pair();
+        return BalanceEngine.await(engine.transfer(pair[0], pair[1], AMOUNT));
+    }
+
+    private String hot() {
+        return numbers[ThreadLocalRandom.current().nextInt(accounts)];
+    }
+
+    private String[] pair() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(numbers.length);
+        int to = (from + 1 + random.nextInt(numbers.length - 1)) % numbers.length;
+        return new String[]{numbers[from], numbers[to]};
+    }
+}
@@ -0,0 +1,54 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.monitoring.BankingMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost that {@link BankingMetrics#record} adds to each transfer, measured around a stand-in for
+ * the service call with the Prometheus registry the application uses. Compare {@code instrumented}
+ * with {@code baseline}; a real transfer (see {@link AccountServiceBenchmark}) takes hundreds of
+ * microseconds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankingMetricsBenchmark {
+
+    private BankingMetrics metrics;
+
+    @Setup
+    public void setup() {
+        metrics = new BankingMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object baseline() {
+        return transfer();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object instrumented() {
+        return metrics.record(BankingMetrics.TRANSFER, BankingMetricsBenchmark::transfer);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object instrumentedContended() {
+        return metrics.record(BankingMetrics.TRANSFER, BankingMetricsBenchmark::transfer);
+    }
+
+    private static Object transfer() {
+        Blackhole.consumeCPU(64);
+        return Boolean.TRUE;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.dto.StatementHeader;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import com.ega.bank.ega_bank_api.service.CsvStatementWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation per CSV statement, formatting only (rows come from memory, output is
+ * discarded). Pair with {@link PdfStatementRendererBenchmark} at the same row counts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx256m"})
+public class CsvStatementWriterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private TransactionView[] samples;
+    private StatementHeader header;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        samples = new TransactionView[256];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new TransactionView((long) i, TransactionType.values()[i % 3], Money.ofMinor(1000 + i),
+                    now.plusSeconds(i), "FR7612345000010000000000123", "FR7612345000010000000000456", null);
+        }
+        header = new StatementHeader("FR7612345000010000000000123", "Jane Doe", Money.of("1234.56"),
+                now, now.plusDays(30), Money.ZERO, Money.of("1234.56"));
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        try (CsvStatementWriter writer = new CsvStatementWriter(OutputStream.nullOutputStream())) {
+            writer.writeHeader(header);
+            for (int i = 0; i < rows; i++) {
+                writer.writeRow(samples[i & 255]);
+            }
+            return writer.getRows();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.security.JwtAuthFilter;
+import com.ega.bank.ega_bank_api.security.JwtAuthenticationCache;
+import com.ega.bank.ega_bank_api.security.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of {@link JwtAuthFilter}: signature verification with one or several
+ * rotated keys, with and without the verified-token cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"1", "3"})
+    public int keys;
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    private JwtAuthFilter filter;
+    private String header;
+
+    @Setup
+    public void setup() {
+        StringBuilder secrets = new StringBuilder();
+        for (int i = 0; i < keys; i++) {
+            if (i > 0) {
+                secrets.append(',');
+            }
+            secrets.append("benchmark-secret-number-").append(i).append("-long-enough-for-hs256");
+        }
+        JwtUtil jwtUtil = new JwtUtil(new StandardEnvironment());
+        jwtUtil.setJwtSecret(secrets.toString());
+        jwtUtil.setValidityMillis(3_600_000);
+        jwtUtil.init();
+        // max size 0 disables the cache
+        JwtAuthenticationCache authCache = new JwtAuthenticationCache(cache ? 10_000 : 0, 300_000);
+        filter = new JwtAuthFilter(jwtUtil, authCache, new SimpleMeterRegistry());
+        header = "Bearer " + jwtUtil.generateToken("bench", List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public int filter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts/FR76");
+        request.addHeader("Authorization", header);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+        return response.getStatus();
+    }
+}
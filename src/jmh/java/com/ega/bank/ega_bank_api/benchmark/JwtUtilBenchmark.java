@@ -0,0 +1,78 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token signing and verification with one key and with several rotated keys. Parsing covers both
+ * a token carrying a key id and a legacy token without one, which is tried against every accepted key in turn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final List<String> ROLES = List.of("ROLE_USER");
+
+    @Param({"1", "3"})
+    public int keys;
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private String tokenWithoutKeyId;
+
+    @Setup
+    public void setup() {
+        StringBuilder secrets = new StringBuilder();
+        String oldest = null;
+        for (int i = 0; i < keys; i++) {
+            if (i > 0) {
+                secrets.append(',');
+            }
+            oldest = "benchmark-secret-number-" + i + "-long-enough-for-hs256";
+            secrets.append(oldest);
+        }
+        jwtUtil = new JwtUtil(new StandardEnvironment());
+        jwtUtil.setJwtSecret(secrets.toString());
+        jwtUtil.setValidityMillis(3_600_000);
+        jwtUtil.init();
+        token = jwtUtil.generateToken("bench", ROLES);
+        // legacy token signed with the oldest key: the fallback has to try every key before it
+        tokenWithoutKeyId = Jwts.builder()
+                .setSubject("bench")
+                .addClaims(Map.of("roles", ROLES))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(oldest.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("bench", ROLES);
+    }
+
+    @Benchmark
+    public Jws<Claims> parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public Jws<Claims> parseTokenWithoutKeyId() {
+        return jwtUtil.parseToken(tokenWithoutKeyId);
+    }
+}
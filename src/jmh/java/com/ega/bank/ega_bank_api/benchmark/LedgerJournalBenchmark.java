@@ -0,0 +1,98 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.journal.JournalEntry;
+import com.ega.bank.ega_bank_api.journal.JournalReader;
+import com.ega.bank.ega_bank_api.journal.LedgerJournal;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Journal appends that wait for their fsync, from one and eight threads (the eight-thread case
+ * shows how many appends share one group commit), and replay of a prefilled journal. Runs in a
+ * temporary directory, so the numbers depend on the file system behind {@code java.io.tmpdir}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerJournalBenchmark {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Param({"1000000"})
+    public int replayRecords;
+
+    private Path appendDir;
+    private Path replayDir;
+    private LedgerJournal journal;
+
+    @Setup
+    public void setup() throws Exception {
+        appendDir = Files.createTempDirectory("journal-append");
+        journal = new LedgerJournal(appendDir, 64L * 1024 * 1024, Duration.ZERO);
+
+        replayDir = Files.createTempDirectory("journal-replay");
+        LedgerJournal filler = new LedgerJournal(replayDir, 64L * 1024 * 1024, Duration.ZERO);
+        for (int i = 0; i < replayRecords; i += 1000) {
+            JournalEntry[] batch = new JournalEntry[1000];
+            for (int j = 0; j < batch.length; j++) {
+                batch[j] = entry(i + j);
+            }
+            filler.append(List.of(batch));
+        }
+        filler.append(List.of(entry(replayRecords))).get();
+        filler.destroy();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        journal.destroy();
+        delete(appendDir);
+        delete(replayDir);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long appendDurableSingleThread() throws Exception {
+        return journal.append(List.of(entry(1))).get();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long appendDurableEightThreads() throws Exception {
+        return journal.append(List.of(entry(1))).get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long replay(Blackhole bh) throws IOException {
+        return new JournalReader(replayDir).replay(1, bh::consume);
+    }
+
+    private static JournalEntry entry(long i) {
+        return new JournalEntry(0, i, TransactionType.TRANSFER, Money.ofMinor(1999), 1L, 2L, NOW);
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.dto.StatementHeader;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import com.ega.bank.ega_bank_api.service.PdfStatementRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Time and allocation per PDF statement. Run with the gc profiler (enabled by the
+ * benchmark profile) to read heap use from {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx256m"})
+public class PdfStatementRendererBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private PdfStatementRenderer renderer;
+    private StatementHeader header;
+    private TransactionView[] samples;
+
+    @Setup
+    public void setup() {
+        renderer = new PdfStatementRenderer();
+        LocalDateTime now = LocalDateTime.now();
+        header = new StatementHeader("FR7612345000010000000000123", "Jane Doe", Money.of("1234.56"),
+                now.minusYears(1), now, Money.ZERO, Money.of("1234.56"));
+        samples = new TransactionView[256];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new TransactionView((long) i, TransactionType.values()[i % 3], Money.ofMinor(1000 + i),
+                    now.plusSeconds(i), "FR7612345000010000000000123", "FR7612345000010000000000456", null);
+        }
+    }
+
+    @Benchmark
+    public long render() throws IOException {
+        return renderer.render(header, IntStream.range(0, rows).mapToObj(i -> samples[i & 255]).iterator(), OutputStream.nullOutputStream());
+    }
+}
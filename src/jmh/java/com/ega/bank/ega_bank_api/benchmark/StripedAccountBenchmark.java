@@ -0,0 +1,82 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.EgaBankApiApplication;
+import com.ega.bank.ega_bank_api.model.AccountType;
+import com.ega.bank.ega_bank_api.model.Client;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.repository.ClientRepository;
+import com.ega.bank.ega_bank_api.service.AccountService;
+import com.ega.bank.ega_bank_api.service.BalanceStripes;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention on a single hot account: 16 threads deposit into the same account, with the balance
+ * on one row ({@code stripes=0}) or spread over 16 stripe rows. {@code mixed} adds one withdrawal
+ * per ten calls, which locks the account row and folds the stripes in when the row runs short.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class StripedAccountBenchmark {
+
+    private static final Money AMOUNT = Money.of("0.01");
+
+    @Param({"0", "16"})
+    public int stripes;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private String number;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(EgaBankApiApplication.class)
+                .run("--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+                        "--spring.datasource.hikari.maximum-pool-size=20");
+        accountService = context.getBean(AccountService.class);
+
+        Client client = new Client();
+        client.setFirstName("Bench");
+        client.setLastName("Client");
+        client.setBirthDate(LocalDate.of(1990, 1, 1));
+        client.setGender("F");
+        client.setAddress("Here");
+        client.setPhone("+33111111111");
+        client.setEmail("bench@example.com");
+        client.setNationality("FR");
+        Long clientId = context.getBean(ClientRepository.class).save(client).getId();
+
+        number = accountService.createAccount(clientId, AccountType.CHECKING).getAccountNumber();
+        accountService.deposit(number, Money.of("1000000"));
+        context.getBean(BalanceStripes.class).configure(number, stripes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Transaction deposit() {
+        return accountService.deposit(number, AMOUNT);
+    }
+
+    @Benchmark
+    public Transaction mixed() {
+        if (ThreadLocalRandom.current().nextInt(10) == 0) {
+            return accountService.withdraw(number, AMOUNT);
+        }
+        return accountService.deposit(number, AMOUNT);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.EgaBankApiApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Platform threads against the {@code virtual} profile, end to end over HTTP: the application is
+ * booted once per fork on a random port and driven by 128 concurrent clients. Both modes use the
+ * same connection pool size, so the difference is how requests wait for it. Needs JDK 21+.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(128)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ThreadingModeBenchmark {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern ACCOUNT_NUMBER = Pattern.compile("\"accountNumber\"\\s*:\\s*\"([^\"]+)\"");
+    private static final int ACCOUNTS = 64;
+    private static final int STATEMENT_ROWS = 500;
+
+    @Param({"platform", "virtual"})
+    public String threading;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient http;
+    private String base;
+    private String token;
+    private final List<String> accounts = new ArrayList<>();
+    private String statementUri;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        SpringApplicationBuilder app = new SpringApplicationBuilder(EgaBankApiApplication.class);
+        if ("virtual".equals(threading)) {
+            app.profiles("virtual");
+        }
+        // command-line arguments, so they win over the profile's own pool settings
+        context = app.run("--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--server.tomcat.threads.max=200",
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--spring.datasource.hikari.connection-timeout=30000");
+        base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        post("/api/auth/register", "{\"username\":\"bench\",\"password\":\"bench-pass\"}");
+        token = find(TOKEN, post("/api/auth/login", "{\"username\":\"bench\",\"password\":\"bench-pass\"}"));
+        String clientId = find(ID, post("/api/clients", "{\"firstName\":\"Bench\",\"lastName\":\"Client\",\"birthDate\":\"1990-01-01\","
+                + "\"gender\":\"F\",\"address\":\"Here\",\"phone\":\"+33111111111\",\"email\":\"b@example.com\",\"nationality\":\"FR\"}"));
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String number = find(ACCOUNT_NUMBER, post("/api/accounts", "{\"clientId\": " + clientId + ", \"type\": \"CHECKING\"}"));
+            post("/api/accounts/" + number + "/deposit", "{\"amount\": 1000000 }");
+            accounts.add(number);
+        }
+        String statementAccount = accounts.get(0);
+        for (int i = 0; i < STATEMENT_ROWS; i++) {
+            post("/api/accounts/" + statementAccount + "/deposit", "{\"amount\": 1 }");
+        }
+        statementUri = "/api/accounts/" + statementAccount + "/statement?start=" + LocalDateTime.now().minusDays(1)
+                + "&end=" + LocalDateTime.now().plusDays(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int transfer() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        return send(request("/api/accounts/transfer")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"fromAccount\":\"" + accounts.get(from)
+                        + "\",\"toAccount\":\"" + accounts.get(to) + "\",\"amount\":0.01}"))
+                .build()).statusCode();
+    }
+
+    @Benchmark
+    public int statement() throws Exception {
+        return send(request(statementUri).GET().build()).statusCode();
+    }
+
+    private String post(String path, String json) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(request(path).POST(HttpRequest.BodyPublishers.ofString(json)).build());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String find(Pattern pattern, String body) {
+        Matcher m = pattern.matcher(body);
+        if (!m.find()) {
+            throw new IllegalStateException("Unexpected response: " + body);
+        }
+        return m.group(1);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ega.bank.ega_bank_api.benchmark;
+
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.AccountType;
+import com.ega.bank.ega_bank_api.model.Client;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and cost of a transaction response body: the {@link Transaction} entity graph (both
+ * accounts and their owners) against the flat {@link TransactionView}. Run with {@code -prof gc}
+ * for allocations per request; bytes per response are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionResponseBenchmark {
+
+    // 1 = a deposit/transfer response, 20 = a default page of history
+    @Param({"1", "20"})
+    public int rows;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private List<Transaction> entities;
+    private List<TransactionView> views;
+
+    @Setup
+    public void setup() {
+        Account src = account(1L, "FR7630001000010000000000101", client(1L, "Alice"));
+        Account dst = account(2L, "FR7630001000010000000000202", client(2L, "Bob"));
+        entities = new ArrayList<>(rows);
+        views = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction t = new Transaction();
+            t.setId((long) i + 1);
+            t.setType(TransactionType.TRANSFER);
+            t.setAmount(Money.of("42.50"));
+            t.setTimestamp(LocalDateTime.of(2026, 1, 1, 12, 0).plusMinutes(i));
+            t.setSourceAccount(src);
+            t.setDestinationAccount(dst);
+            entities.add(t);
+            views.add(TransactionView.of(t));
+        }
+        System.out.printf("%nbytes per response (%d rows): entity=%d view=%d%n",
+                rows, mapper.writeValueAsBytes(entities).length, mapper.writeValueAsBytes(views).length);
+    }
+
+    @Benchmark
+    public byte[] entity() {
+        return mapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] view() {
+        return mapper.writeValueAsBytes(views);
+    }
+
+    private static Client client(Long id, String firstName) {
+        Client c = new Client();
+        c.setId(id);
+        c.setFirstName(firstName);
+        c.setLastName("Martin");
+        c.setBirthDate(LocalDate.of(1990, 5, 17));
+        c.setGender("F");
+        c.setAddress("12 rue de la Paix, 75002 Paris");
+        c.setPhone("+33 6 12 34 56 78");
+        c.setEmail(firstName.toLowerCase() + "@example.com");
+        c.setNationality("FR");
+        return c;
+    }
+
+    private static Account account(Long id, String number, Client owner) {
+        Account a = new Account();
+        a.setId(id);
+        a.setAccountNumber(number);
+        a.setType(AccountType.CHECKING);
+        a.setBalance(Money.of("1000.00"));
+        a.setOwner(owner);
+        return a;
+    }
+}
@@ -2,8 +2,10 @@ package com.ega.bank.ega_bank_api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class EgaBankApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,147 @@
+package com.ega.bank.ega_bank_api.archive;
+
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Layout of one archived month (big-endian):
+ * <pre>
+ * int   magic "TXAR"
+ * int   version (1)
+ * int   number of accounts, n
+ * long  n account ids, ascending: readers skip the file for any other account
+ * gzip  the records in (timestamp, id) order, each preceded by a 1 byte;
+ *       then a 0 byte and the long record count
+ * </pre>
+ * A record: long id, nullable UTF type, long amount (Money minor units), long timestamp
+ * (microseconds since 1970-01-01T00:00, local time, as stored in the table), long source account
+ * id (0 = none), nullable UTF source account number, long destination account id, nullable UTF
+ * destination account number, nullable UTF description. A nullable UTF is a boolean followed,
+ * when true, by the string.
+ */
+final class ArchiveFormat {
+
+    static final String FILE_PREFIX = "transactions-";
+    static final String FILE_SUFFIX = ".archive";
+
+    private static final int MAGIC = 0x54584152; // "TXAR"
+    private static final int VERSION = 1;
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private ArchiveFormat() {
+    }
+
+    static String fileName(LocalDate periodStart) {
+        return FILE_PREFIX + MONTH.format(periodStart) + FILE_SUFFIX;
+    }
+
+    static void writeHeader(DataOutputStream out, long[] accountIds) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(accountIds.length);
+        for (long id : accountIds) {
+            out.writeLong(id);
+        }
+    }
+
+    static long[] readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a transaction archive");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported transaction archive version " + version);
+        }
+        long[] accountIds = new long[in.readInt()];
+        for (int i = 0; i < accountIds.length; i++) {
+            accountIds[i] = in.readLong();
+        }
+        return accountIds;
+    }
+
+    static void writeRecord(DataOutputStream out, ArchivedTransaction tx) throws IOException {
+        out.writeByte(1);
+        out.writeLong(tx.getId());
+        writeNullable(out, tx.getType() != null ? tx.getType().name() : null);
+        out.writeLong(tx.getAmount().getMinor());
+        out.writeLong(toMicros(tx.getTimestamp()));
+        out.writeLong(orZero(tx.getSourceAccountId()));
+        writeNullable(out, tx.getSourceAccount());
+        out.writeLong(orZero(tx.getDestinationAccountId()));
+        writeNullable(out, tx.getDestinationAccount());
+        writeNullable(out, tx.getDescription());
+    }
+
+    static void writeEnd(DataOutputStream out, long rows) throws IOException {
+        out.writeByte(0);
+        out.writeLong(rows);
+    }
+
+    /**
+     * The next record, or null after the last one. A file that ends without its end marker, or
+     * whose record count does not match, is reported as truncated.
+     */
+    static ArchivedTransaction readRecord(DataInputStream in, long rowsSoFar) throws IOException {
+        byte marker;
+        try {
+            marker = in.readByte();
+        } catch (EOFException ex) {
+            throw new IOException("Truncated transaction archive", ex);
+        }
+        if (marker == 0) {
+            long rows = in.readLong();
+            if (rows != rowsSoFar) {
+                throw new IOException("Transaction archive holds " + rowsSoFar + " records, expected " + rows);
+            }
+            return null;
+        }
+        long id = in.readLong();
+        String type = readNullable(in);
+        Money amount = Money.ofMinor(in.readLong());
+        LocalDateTime timestamp = fromMicros(in.readLong());
+        Long sourceId = orNull(in.readLong());
+        String source = readNullable(in);
+        Long destinationId = orNull(in.readLong());
+        String destination = readNullable(in);
+        String description = readNullable(in);
+        return new ArchivedTransaction(id, type != null ? TransactionType.valueOf(type) : null, amount, timestamp,
+                sourceId, source, destinationId, destination, description);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static Long orNull(long value) {
+        return value != 0 ? value : null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ega.bank.ega_bank_api.archive;
+
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transaction as kept in the cold archive: the {@link TransactionView} fields plus the account
+ * ids, which balance computations and per-account filtering need. Built by a JPQL constructor
+ * expression when a month is archived, and read back from the archive files.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTransaction {
+    private Long id;
+    private TransactionType type;
+    private Money amount;
+    private LocalDateTime timestamp;
+    private Long sourceAccountId;
+    private String sourceAccount;
+    private Long destinationAccountId;
+    private String destinationAccount;
+    private String description;
+
+    public boolean touches(Long accountId) {
+        return accountId.equals(sourceAccountId) || accountId.equals(destinationAccountId);
+    }
+
+    /**
+     * Effect on the account's balance, as in {@code TransactionRepository.netMovementMinor}:
+     * credit if the account is the destination, debit otherwise.
+     */
+    public long deltaMinor(Long accountId) {
+        return accountId.equals(destinationAccountId) ? amount.getMinor() : -amount.getMinor();
+    }
+
+    public TransactionView toView() {
+        return new TransactionView(id, type, amount, timestamp, sourceAccount, destinationAccount, description);
+    }
+}
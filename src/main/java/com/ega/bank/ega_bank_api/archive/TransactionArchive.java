@@ -0,0 +1,284 @@
+package com.ega.bank.ega_bank_api.archive;
+
+import com.ega.bank.ega_bank_api.model.ArchivePartition;
+import com.ega.bank.ega_bank_api.repository.ArchivePartitionRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold tier of the transaction history: one compressed file per archived month under
+ * {@code transactions.archive.dir} (see {@link ArchiveFormat}), written by
+ * {@link TransactionArchiver} and listed in {@code archive_partitions}. Every movement before
+ * {@link #boundary()} is here and no longer in the {@code transactions} table;
+ * {@code TransactionHistory} splits reads at that instant and only opens the files of the months
+ * a query covers, and of those only the ones that mention the account.
+ * <p>
+ * The partition list is loaded at startup and then kept in memory. Like the account cache, this
+ * assumes a single application instance.
+ */
+@Component
+public class TransactionArchive implements SmartInitializingSingleton {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ArchivePartitionRepository repository;
+    private final Path directory;
+    // account ids from each file's header, read once per file
+    private final Map<LocalDate, long[]> accountsByPeriod = new ConcurrentHashMap<>();
+    // replaced as a whole on every change
+    private volatile NavigableMap<LocalDate, ArchivePartition> partitions = Collections.emptyNavigableMap();
+
+    public TransactionArchive(ArchivePartitionRepository repository,
+                              @Value("${transactions.archive.dir:data/archive}") String directory) {
+        this.repository = repository;
+        this.directory = Path.of(directory);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        NavigableMap<LocalDate, ArchivePartition> loaded = new TreeMap<>();
+        for (ArchivePartition partition : repository.findAllByOrderByPeriodStart()) {
+            loaded.put(partition.getPeriodStart(), partition);
+        }
+        partitions = Collections.unmodifiableNavigableMap(loaded);
+    }
+
+    /**
+     * Start of the month after the last archived one: movements before it are only in the archive,
+     * the ones at or after it only in the table. {@link LocalDateTime#MIN} while nothing is archived.
+     */
+    public LocalDateTime boundary() {
+        NavigableMap<LocalDate, ArchivePartition> current = partitions;
+        return current.isEmpty() ? LocalDateTime.MIN : current.lastKey().plusMonths(1).atStartOfDay();
+    }
+
+    public boolean isArchived(LocalDate periodStart) {
+        return partitions.containsKey(periodStart);
+    }
+
+    /**
+     * First days of the archived months that overlap {@code from..to}.
+     */
+    public NavigableSet<LocalDate> periods(LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) {
+            return Collections.emptyNavigableSet();
+        }
+        return partitions.navigableKeySet().subSet(from.toLocalDate().withDayOfMonth(1), true, to.toLocalDate(), true);
+    }
+
+    /**
+     * Archived movements of the account timestamped between {@code from} and {@code to}, both
+     * inclusive, oldest first. Files are read as the stream is consumed; close it when done.
+     */
+    public Stream<ArchivedTransaction> stream(Long accountId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDate, ArchivePartition> current = partitions;
+        List<ArchivePartition> covered = periods(from, to).stream().map(current::get).filter(Objects::nonNull).toList();
+        return stream(new Cursor(accountId, from, to, covered.iterator()));
+    }
+
+    /**
+     * Every movement of the partition, oldest first; close the stream when done.
+     */
+    public Stream<ArchivedTransaction> stream(ArchivePartition partition) {
+        return stream(new Cursor(null, LocalDateTime.MIN, LocalDateTime.MAX, List.of(partition).iterator()));
+    }
+
+    private static Stream<ArchivedTransaction> stream(Cursor cursor) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+
+    /**
+     * Writes one month's movements, in (timestamp, id) order, to its archive file, replacing any
+     * earlier attempt, and returns the partition describing it; saving and {@link #register registering}
+     * it is up to the caller. {@code accountIds}: every account the movements mention.
+     */
+    ArchivePartition write(LocalDate periodStart, long[] accountIds, Iterator<ArchivedTransaction> rows) throws IOException {
+        Files.createDirectories(directory);
+        String name = ArchiveFormat.fileName(periodStart);
+        Path tmp = directory.resolve(name + ".tmp");
+        long count = 0;
+        try {
+            long[] sorted = accountIds.clone();
+            Arrays.sort(sorted);
+            try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+                 BufferedOutputStream buffered = new BufferedOutputStream(file, BUFFER_SIZE)) {
+                DataOutputStream header = new DataOutputStream(buffered);
+                ArchiveFormat.writeHeader(header, sorted);
+                header.flush();
+                GZIPOutputStream gzip = new GZIPOutputStream(buffered, BUFFER_SIZE);
+                try (DataOutputStream out = new DataOutputStream(gzip)) {
+                    while (rows.hasNext()) {
+                        ArchiveFormat.writeRecord(out, rows.next());
+                        count++;
+                    }
+                    ArchiveFormat.writeEnd(out, count);
+                    out.flush();
+                    gzip.finish();
+                    buffered.flush();
+                    file.getFD().sync();
+                }
+            }
+            Files.move(tmp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return new ArchivePartition(null, periodStart, name, count, LocalDateTime.now());
+    }
+
+    /**
+     * Makes the partition's month part of the archive for readers: from now on they read it from
+     * the file rather than from the table.
+     */
+    synchronized void register(ArchivePartition partition) {
+        NavigableMap<LocalDate, ArchivePartition> next = new TreeMap<>(partitions);
+        next.put(partition.getPeriodStart(), partition);
+        accountsByPeriod.remove(partition.getPeriodStart());
+        partitions = Collections.unmodifiableNavigableMap(next);
+    }
+
+    synchronized void unregister(ArchivePartition partition) {
+        NavigableMap<LocalDate, ArchivePartition> next = new TreeMap<>(partitions);
+        next.remove(partition.getPeriodStart());
+        accountsByPeriod.remove(partition.getPeriodStart());
+        partitions = Collections.unmodifiableNavigableMap(next);
+    }
+
+    void delete(ArchivePartition partition) throws IOException {
+        Files.deleteIfExists(directory.resolve(partition.getFileName()));
+    }
+
+    private boolean mentions(ArchivePartition partition, Long accountId) {
+        long[] ids = accountsByPeriod.computeIfAbsent(partition.getPeriodStart(), p -> {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(open(partition)))) {
+                return ArchiveFormat.readHeader(in);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot read " + partition.getFileName(), ex);
+            }
+        });
+        return Arrays.binarySearch(ids, accountId) >= 0;
+    }
+
+    private InputStream open(ArchivePartition partition) throws IOException {
+        return Files.newInputStream(directory.resolve(partition.getFileName()));
+    }
+
+    /**
+     * Walks the records of the given partitions, one open file at a time: those of one account
+     * (or all of them, for a null account) timestamped between from and to.
+     */
+    private final class Cursor implements Iterator<ArchivedTransaction> {
+        private final Long accountId;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final Iterator<ArchivePartition> partitions;
+        private ArchivePartition partition;
+        private DataInputStream in;
+        private long read;
+        private ArchivedTransaction next;
+
+        private Cursor(Long accountId, LocalDateTime from, LocalDateTime to, Iterator<ArchivePartition> partitions) {
+            this.accountId = accountId;
+            this.from = from;
+            this.to = to;
+            this.partitions = partitions;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    if (in == null && !openNext()) {
+                        return false;
+                    }
+                    ArchivedTransaction tx = ArchiveFormat.readRecord(in, read);
+                    if (tx == null) {
+                        close();
+                        continue;
+                    }
+                    read++;
+                    if ((accountId == null || tx.touches(accountId)) && !tx.getTimestamp().isBefore(from) && !tx.getTimestamp().isAfter(to)) {
+                        next = tx;
+                    }
+                }
+                return true;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot read " + partition.getFileName(), ex);
+            }
+        }
+
+        @Override
+        public ArchivedTransaction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ArchivedTransaction tx = next;
+            next = null;
+            return tx;
+        }
+
+        private boolean openNext() throws IOException {
+            while (partitions.hasNext()) {
+                ArchivePartition candidate = partitions.next();
+                if (accountId != null && !mentions(candidate, accountId)) {
+                    continue;
+                }
+                partition = candidate;
+                BufferedInputStream buffered = new BufferedInputStream(open(candidate), BUFFER_SIZE);
+                try {
+                    ArchiveFormat.readHeader(new DataInputStream(buffered));
+                    in = new DataInputStream(new GZIPInputStream(buffered, BUFFER_SIZE));
+                } catch (IOException ex) {
+                    buffered.close();
+                    throw ex;
+                }
+                read = 0;
+                return true;
+            }
+            return false;
+        }
+
+        void close() {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                    // read-only file
+                }
+                in = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ega.bank.ega_bank_api.archive;
+
+import com.ega.bank.ega_bank_api.model.ArchivePartition;
+import com.ega.bank.ega_bank_api.model.BalanceCheckpoint;
+import com.ega.bank.ega_bank_api.repository.ArchivePartitionRepository;
+import com.ega.bank.ega_bank_api.repository.BalanceCheckpointRepository;
+import com.ega.bank.ega_bank_api.repository.TransactionRepository;
+import com.ega.bank.ega_bank_api.service.BalanceCheckpointService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Moves whole months of transactions older than {@code transactions.archive.keep-months} (besides
+ * the current one) out of the {@code transactions} table into the {@link TransactionArchive},
+ * oldest first, one month per database transaction:
+ * <ol>
+ * <li>the month's rows are written to a new archive file;</li>
+ * <li>every account they mention gets a balance checkpoint at the end of the month, so balances
+ * of later dates never need the archive;</li>
+ * <li>the partition is recorded and the rows are deleted.</li>
+ * </ol>
+ * The month is handed to readers before the delete, so they read it from the file, which already
+ * holds every row; if the transaction fails, it is taken back and the file removed.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.archive.enabled", havingValue = "true")
+public class TransactionArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    private final TransactionArchive archive;
+    private final TransactionRepository transactionRepository;
+    private final ArchivePartitionRepository partitionRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final TransactionTemplate transactionTemplate;
+    private final int keepMonths;
+
+    public TransactionArchiver(TransactionArchive archive,
+                               TransactionRepository transactionRepository,
+                               ArchivePartitionRepository partitionRepository,
+                               BalanceCheckpointRepository checkpointRepository,
+                               BalanceCheckpointService balanceCheckpointService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${transactions.archive.keep-months:12}") int keepMonths) {
+        if (keepMonths < 0) {
+            throw new IllegalArgumentException("transactions.archive.keep-months must not be negative");
+        }
+        this.archive = archive;
+        this.transactionRepository = transactionRepository;
+        this.partitionRepository = partitionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.keepMonths = keepMonths;
+    }
+
+    /**
+     * Archives every month that is due and returns how many were archived.
+     */
+    @Scheduled(fixedDelayString = "${transactions.archive.interval-ms:3600000}")
+    public synchronized int archiveDue() {
+        LocalDate cutoff = YearMonth.now().minusMonths(keepMonths).atDay(1);
+        int archived = 0;
+        LocalDateTime oldest;
+        while ((oldest = transactionRepository.findOldestTimestamp()) != null) {
+            LocalDate period = oldest.toLocalDate().withDayOfMonth(1);
+            if (!period.isBefore(cutoff)) {
+                break;
+            }
+            if (archive.isArchived(period)) {
+                // never overwrite an archived month: rows showing up there need a look
+                log.error("Transactions found in already archived month {}; archiving stopped", period);
+                break;
+            }
+            archive(period);
+            archived++;
+        }
+        return archived;
+    }
+
+    private void archive(LocalDate period) {
+        long started = System.nanoTime();
+        LocalDateTime from = period.atStartOfDay();
+        LocalDateTime to = period.plusMonths(1).atStartOfDay();
+        AtomicReference<ArchivePartition> written = new AtomicReference<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                TreeSet<Long> accountIds = new TreeSet<>(transactionRepository.findSourceAccountIds(from, to));
+                accountIds.addAll(transactionRepository.findDestinationAccountIds(from, to));
+                try (Stream<ArchivedTransaction> rows = transactionRepository.streamForArchive(from, to)) {
+                    written.set(archive.write(period, accountIds.stream().mapToLong(Long::longValue).toArray(), rows.iterator()));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Cannot write the archive of " + period, ex);
+                }
+                // (end of month, 0) comes after every movement of the month and before any later one
+                List<BalanceCheckpoint> closing = new ArrayList<>(accountIds.size());
+                for (Long accountId : accountIds) {
+                    closing.add(new BalanceCheckpoint(null, accountId, 0L, to, balanceCheckpointService.balanceBefore(accountId, to)));
+                }
+                checkpointRepository.saveAll(closing);
+                partitionRepository.save(written.get());
+                archive.register(written.get());
+                int deleted = transactionRepository.deletePeriod(from, to);
+                if (deleted != written.get().getRowCount()) {
+                    throw new IllegalStateException("Archived " + written.get().getRowCount() + " transactions of " + period + " but deleted " + deleted);
+                }
+            });
+        } catch (RuntimeException ex) {
+            if (written.get() != null) {
+                discard(written.get());
+            }
+            throw ex;
+        }
+        ArchivePartition partition = written.get();
+        log.info("Archived {} transactions of {} to {} in {} ms", partition.getRowCount(), YearMonth.from(period),
+                partition.getFileName(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void discard(ArchivePartition partition) {
+        archive.unregister(partition);
+        try {
+            archive.delete(partition);
+        } catch (IOException ex) {
+            log.warn("Cannot remove {}", partition.getFileName(), ex);
+        }
+    }
+}
@@ -1,22 +1,26 @@
 package com.ega.bank.ega_bank_api.controller;
 
 import com.ega.bank.ega_bank_api.dto.*;
+import com.ega.bank.ega_bank_api.engine.BalanceEngine;
+import com.ega.bank.ega_bank_api.exception.AccountNotFoundException;
 import com.ega.bank.ega_bank_api.model.*;
+import com.ega.bank.ega_bank_api.monitoring.BankingMetrics;
 import com.ega.bank.ega_bank_api.service.AccountService;
+import com.ega.bank.ega_bank_api.service.BalanceStripes;
+import com.ega.bank.ega_bank_api.service.IdempotencyService;
+import com.ega.bank.ega_bank_api.service.StatementJobService;
+import com.ega.bank.ega_bank_api.service.StatementService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.MediaType;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-
-import java.math.BigDecimal;
+import java.net.URI;
+import java.security.Principal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -26,11 +30,19 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final StatementService statementService;
+    private final BankingMetrics bankingMetrics;
+    private final IdempotencyService idempotencyService;
+    private final StatementJobService statementJobService;
+    private final BalanceStripes balanceStripes;
+    // present only with engine.enabled=true; keyed requests stay on the transactional path
+    private final ObjectProvider<BalanceEngine> balanceEngine;
 
     @PostMapping
-    public ResponseEntity<Account> create(@jakarta.validation.Valid @RequestBody CreateAccountRequest req) {
-        Account acc = accountService.createAccount(req.getClientId(), req.getType());
-        return ResponseEntity.ok(acc);
+    public ResponseEntity<?> create(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                    @jakarta.validation.Valid @RequestBody CreateAccountRequest req) {
+        return idempotencyService.execute(idempotencyKey, "create " + req.getClientId() + " " + req.getType(),
+                () -> accountService.createAccount(req.getClientId(), req.getType()));
     }
 
     @GetMapping("/{accountNumber}")
@@ -38,22 +50,76 @@ public class AccountController {
         return accountService.findByAccountNumber(accountNumber).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Hot account mode: spreads deposits over {@code count} sub-balances (0 turns it off).
+     */
+    @PutMapping("/{accountNumber}/stripes")
+    public ResponseEntity<Account> stripes(@PathVariable String accountNumber, @RequestParam int count) {
+        return ResponseEntity.ok(balanceStripes.configure(accountNumber, count));
+    }
+
     @PostMapping("/{accountNumber}/deposit")
-    public ResponseEntity<Transaction> deposit(@PathVariable String accountNumber, @jakarta.validation.Valid @RequestBody TransactionRequest req) {
-        Transaction tx = accountService.deposit(accountNumber, req.getAmount());
-        return ResponseEntity.ok(tx);
+    public ResponseEntity<?> deposit(@PathVariable String accountNumber,
+                                     @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                     @jakarta.validation.Valid @RequestBody TransactionRequest req) {
+        BalanceEngine engine = balanceEngine.getIfAvailable();
+        if (engine != null && idempotencyKey == null) {
+            return bankingMetrics.record(BankingMetrics.DEPOSIT,
+                    () -> ResponseEntity.ok(BalanceEngine.await(engine.deposit(accountNumber, req.getAmount()))));
+        }
+        return bankingMetrics.record(BankingMetrics.DEPOSIT, () -> idempotencyService.execute(idempotencyKey,
+                "deposit " + accountNumber + " " + req.getAmount(),
+                () -> TransactionView.of(accountService.deposit(accountNumber, req.getAmount()))));
     }
 
     @PostMapping("/{accountNumber}/withdraw")
-    public ResponseEntity<Transaction> withdraw(@PathVariable String accountNumber, @jakarta.validation.Valid @RequestBody TransactionRequest req) {
-        Transaction tx = accountService.withdraw(accountNumber, req.getAmount());
-        return ResponseEntity.ok(tx);
+    public ResponseEntity<?> withdraw(@PathVariable String accountNumber,
+                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                      @jakarta.validation.Valid @RequestBody TransactionRequest req) {
+        BalanceEngine engine = balanceEngine.getIfAvailable();
+        if (engine != null && idempotencyKey == null) {
+            return bankingMetrics.record(BankingMetrics.WITHDRAW,
+                    () -> ResponseEntity.ok(BalanceEngine.await(engine.withdraw(accountNumber, req.getAmount()))));
+        }
+        return bankingMetrics.record(BankingMetrics.WITHDRAW, () -> idempotencyService.execute(idempotencyKey,
+                "withdraw " + accountNumber + " " + req.getAmount(),
+                () -> TransactionView.of(accountService.withdraw(accountNumber, req.getAmount()))));
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<Transaction> transfer(@jakarta.validation.Valid @RequestBody TransferRequest req) {
-        Transaction tx = accountService.transfer(req.getFromAccount(), req.getToAccount(), req.getAmount());
-        return ResponseEntity.ok(tx);
+    public ResponseEntity<?> transfer(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                      @jakarta.validation.Valid @RequestBody TransferRequest req) {
+        BalanceEngine engine = balanceEngine.getIfAvailable();
+        if (engine != null && idempotencyKey == null) {
+            return bankingMetrics.record(BankingMetrics.TRANSFER,
+                    () -> ResponseEntity.ok(BalanceEngine.await(engine.transfer(req.getFromAccount(), req.getToAccount(), req.getAmount()))));
+        }
+        return bankingMetrics.record(BankingMetrics.TRANSFER, () -> idempotencyService.execute(idempotencyKey,
+                "transfer " + req.getFromAccount() + " " + req.getToAccount() + " " + req.getAmount(),
+                () -> TransactionView.of(accountService.transfer(req.getFromAccount(), req.getToAccount(), req.getAmount()))));
+    }
+
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<?> transferBatch(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                           @jakarta.validation.Valid @RequestBody BatchTransferRequest req) {
+        BatchTransferRequest.Mode mode = req.getMode() != null ? req.getMode() : BatchTransferRequest.Mode.ALL_OR_NOTHING;
+        StringBuilder request = new StringBuilder("batch ").append(mode);
+        for (TransferRequest leg : req.getTransfers()) {
+            request.append(' ').append(leg.getFromAccount()).append('>').append(leg.getToAccount()).append(':').append(leg.getAmount());
+        }
+        return bankingMetrics.record(BankingMetrics.BATCH_TRANSFER, () -> idempotencyService.execute(idempotencyKey, request.toString(),
+                () -> accountService.transferBatch(req.getTransfers(), mode)));
+    }
+
+    @GetMapping("/{accountNumber}/balance")
+    public ResponseEntity<BalanceResponse> balance(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        if (asOf == null) {
+            Account acc = accountService.findByAccountNumber(accountNumber).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+            return ResponseEntity.ok(new BalanceResponse(accountNumber, LocalDateTime.now(), acc.getBalance()));
+        }
+        return ResponseEntity.ok(new BalanceResponse(accountNumber, asOf, accountService.getBalanceAsOf(accountNumber, asOf)));
     }
 
     @GetMapping("/{accountNumber}/transactions")
@@ -68,94 +134,90 @@ public class AccountController {
             int p = page != null && page >= 0 ? page : 0;
             int s = size != null && size > 0 ? size : 20;
             org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(p, s, org.springframework.data.domain.Sort.by("timestamp").descending());
-            org.springframework.data.domain.Page<Transaction> txs = accountService.getTransactionsForPeriod(accountNumber, start, end, pageable);
+            org.springframework.data.domain.Page<TransactionView> txs = accountService.getTransactionsForPeriod(accountNumber, start, end, pageable);
             return ResponseEntity.ok(txs);
         } else {
             return ResponseEntity.ok(accountService.getTransactionsForPeriod(accountNumber, start, end));
         }
     }
 
+    /**
+     * Keyset-paginated history, newest first. Pass the returned {@code nextCursor} back as
+     * {@code cursor} to fetch the following page.
+     */
+    @GetMapping("/{accountNumber}/transactions/cursor")
+    public ResponseEntity<CursorPage<TransactionView>> transactionsByCursor(
+            @PathVariable String accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int s = size != null && size > 0 ? Math.min(size, 500) : 20;
+        return ResponseEntity.ok(accountService.getTransactionsBefore(accountNumber, start, end, cursor, s));
+    }
+
+    /**
+     * Deposits, withdrawals and transfers in and out, counted and totalled per {@code day} or per
+     * {@code month}. Defaults to the last 12 months, or the last 31 days by day, up to today.
+     */
+    @GetMapping("/{accountNumber}/summary")
+    public ResponseEntity<List<ActivitySummary>> summary(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        ActivitySummary.Granularity g;
+        try {
+            g = ActivitySummary.Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported granularity: " + granularity);
+        }
+        LocalDate to = end != null ? end : LocalDate.now();
+        LocalDate from = start != null ? start
+                : g == ActivitySummary.Granularity.MONTH ? to.withDayOfMonth(1).minusMonths(11) : to.minusDays(30);
+        return ResponseEntity.ok(accountService.getActivitySummary(accountNumber, g, from, to));
+    }
+
+    /**
+     * Queues a CSV or PDF statement and returns the job (202). Poll {@code /api/statements/jobs/{id}}
+     * and fetch the file from its {@code downloadUrl} once done. 503 when the job queue is full.
+     */
+    @PostMapping("/{accountNumber}/statements")
+    public ResponseEntity<StatementJobView> submitStatement(
+            @PathVariable String accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "csv") String format,
+            Principal principal) {
+        StatementJobService.Format f;
+        try {
+            f = StatementJobService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported statement format: " + format);
+        }
+        Account account = accountService.findByAccountNumber(accountNumber).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        StatementJobView job = statementJobService.submit(account, start, end, f, principal.getName());
+        return ResponseEntity.accepted().location(URI.create("/api/statements/jobs/" + job.getId())).body(job);
+    }
+
     @GetMapping(value = "/{accountNumber}/statement", produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> statement(
+    public ResponseEntity<StreamingResponseBody> statement(
             @PathVariable String accountNumber,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        List<Transaction> txs = accountService.getTransactionsForPeriod(accountNumber, start, end);
-        StringBuilder sb = new StringBuilder();
-        sb.append("id,type,amount,timestamp,sourceAccount,destinationAccount,description\n");
-        for (Transaction t : txs) {
-            String src = t.getSourceAccount() != null ? t.getSourceAccount().getAccountNumber() : "";
-            String dst = t.getDestinationAccount() != null ? t.getDestinationAccount().getAccountNumber() : "";
-            sb.append(t.getId()).append(',')
-                    .append(t.getType()).append(',')
-                    .append(t.getAmount()).append(',')
-                    .append(t.getTimestamp()).append(',')
-                    .append(src).append(',')
-                    .append(dst).append(',')
-                    .append(t.getDescription() != null ? t.getDescription().replace(',', ' ') : "")
-                    .append('\n');
-        }
-        return ResponseEntity.ok().header("Content-Disposition", "attachment; filename=statement.csv").body(sb.toString());
+        // Resolve the account up front so an unknown number still yields a 400 before the body starts streaming
+        Account account = accountService.findByAccountNumber(accountNumber).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        StreamingResponseBody body = out -> statementService.writeCsv(account, start, end, out);
+        return ResponseEntity.ok().header("Content-Disposition", "attachment; filename=statement.csv").body(body);
     }
 
     @GetMapping(value = "/{accountNumber}/statement.pdf", produces = MediaType.APPLICATION_PDF_VALUE)
-    public ResponseEntity<byte[]> statementPdf(
+    public ResponseEntity<StreamingResponseBody> statementPdf(
             @PathVariable String accountNumber,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        List<Transaction> txs = accountService.getTransactionsForPeriod(accountNumber, start, end);
-        try (PDDocument doc = new PDDocument(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PDPage page = new PDPage();
-            doc.addPage(page);
-            PDPageContentStream cs = new PDPageContentStream(doc, page);
-
-            cs.beginText();
-            cs.setFont(PDType1Font.HELVETICA_BOLD, 14);
-            cs.newLineAtOffset(50, 750);
-            cs.showText("Statement for account: " + accountNumber);
-            cs.endText();
-
-            float y = 730f;
-            cs.setFont(PDType1Font.HELVETICA, 10);
-
-            // Header with account info
-            Account acc = accountService.findByAccountNumber(accountNumber).orElse(null);
-            cs.beginText();
-            cs.newLineAtOffset(50, 720);
-            String owner = acc != null && acc.getOwner() != null ? acc.getOwner().getFirstName() + " " + acc.getOwner().getLastName() : "";
-            cs.showText("Owner: " + owner + "    Balance: " + (acc != null ? acc.getBalance() : "N/A"));
-            cs.endText();
-
-            // Column titles
-            y -= 20f;
-            cs.beginText();
-            cs.newLineAtOffset(50, y);
-            cs.showText(String.format("%-8s %-12s %-12s %-24s %-16s %-16s", "ID", "TYPE", "AMOUNT", "TIMESTAMP", "SRC", "DST"));
-            cs.endText();
-            y -= 14f;
-
-            for (Transaction t : txs) {
-                if (y < 50f) {
-                    cs.close();
-                    page = new PDPage();
-                    doc.addPage(page);
-                    cs = new PDPageContentStream(doc, page);
-                    y = 750f;
-                }
-                cs.beginText();
-                cs.newLineAtOffset(50, y);
-                String src = t.getSourceAccount() != null ? t.getSourceAccount().getAccountNumber() : "";
-                String dst = t.getDestinationAccount() != null ? t.getDestinationAccount().getAccountNumber() : "";
-                String line = String.format("%-8s %-12s %-12s %-24s %-16s %-16s", t.getId(), t.getType(), t.getAmount(), t.getTimestamp(), src, dst);
-                cs.showText(line);
-                cs.endText();
-                y -= 14f;
-            }
-            cs.close();
-            doc.save(baos);
-            return ResponseEntity.ok().header("Content-Disposition", "attachment; filename=statement.pdf").body(baos.toByteArray());
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to generate PDF", e);
-        }
+        Account account = accountService.findByAccountNumber(accountNumber).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        StreamingResponseBody body = out -> statementService.writePdf(account, start, end, out);
+        return ResponseEntity.ok().header("Content-Disposition", "attachment; filename=statement.pdf").body(body);
     }
 }
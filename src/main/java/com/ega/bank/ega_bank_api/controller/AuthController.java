@@ -10,9 +10,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -32,6 +36,7 @@ public class AuthController {
         }
         AppUser u = new AppUser();
         u.setUsername(req.getUsername());
+        // hashed on the bounded pool (see PooledPasswordEncoder)
         u.setPassword(passwordEncoder.encode(req.getPassword()));
         u.setRoles(Set.of("ROLE_USER"));
         userRepository.save(u);
@@ -40,9 +45,14 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest req) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
-        var user = userRepository.findByUsername(req.getUsername()).get();
-        String token = jwtUtil.generateToken(user.getUsername(), user.getRoles().stream().toList());
+        // the provider's single user lookup already yields the roles, no second findByUsername; it runs on
+        // this thread and only the password check goes to the hashing pool (see PooledPasswordEncoder)
+        Authentication auth = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
+        List<String> roles = new ArrayList<>(auth.getAuthorities().size());
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        String token = jwtUtil.generateToken(auth.getName(), roles);
         return ResponseEntity.ok(new AuthResponse(token));
     }
 }
@@ -1,13 +1,19 @@
 package com.ega.bank.ega_bank_api.controller;
 
+import com.ega.bank.ega_bank_api.dto.ClientSummary;
 import com.ega.bank.ega_bank_api.model.Client;
 import com.ega.bank.ega_bank_api.service.ClientService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/clients")
@@ -16,6 +22,8 @@ public class ClientController {
 
     private final ClientService clientService;
 
+    private static final Set<String> SORTABLE = Set.of("id", "firstName", "lastName", "email", "nationality");
+
     @PostMapping
     public ResponseEntity<Client> create(@Valid @RequestBody Client client) {
         Client saved = clientService.create(client);
@@ -23,10 +31,44 @@ public class ClientController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Client>> list() {
+    public ResponseEntity<?> list(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        if (page != null || size != null || sort != null) {
+            return ResponseEntity.ok(clientService.findAll(pageRequest(page, size, sort)));
+        }
         return ResponseEntity.ok(clientService.findAll());
     }
 
+    /**
+     * Id, name, number of accounts and total balance per client, computed in one aggregate query.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<Page<ClientSummary>> summary(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(clientService.summarize(pageRequest(page, size, sort)));
+    }
+
+    // sort is "property" or "property,asc|desc" over client columns; defaults to id ascending
+    private static Pageable pageRequest(Integer page, Integer size, String sort) {
+        int p = page != null && page >= 0 ? page : 0;
+        int s = size != null && size > 0 ? Math.min(size, 500) : 20;
+        Sort order = Sort.by("id");
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.split(",");
+            String property = parts[0].trim();
+            if (!SORTABLE.contains(property)) {
+                throw new IllegalArgumentException("Cannot sort clients by " + property);
+            }
+            boolean desc = parts.length > 1 && parts[1].trim().equalsIgnoreCase("desc");
+            order = desc ? Sort.by(property).descending() : Sort.by(property);
+        }
+        return PageRequest.of(p, s, order);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Client> get(@PathVariable Long id) {
         return ResponseEntity.ok(clientService.findById(id));
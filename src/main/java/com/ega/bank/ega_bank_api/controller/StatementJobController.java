@@ -0,0 +1,51 @@
+package com.ega.bank.ega_bank_api.controller;
+
+import com.ega.bank.ega_bank_api.dto.StatementJobView;
+import com.ega.bank.ega_bank_api.service.StatementJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.security.Principal;
+import java.util.Optional;
+
+/**
+ * Status and download of statements queued with {@code POST /api/accounts/{accountNumber}/statements}.
+ * Jobs are only visible to the user who submitted them.
+ */
+@RestController
+@RequestMapping("/api/statements/jobs")
+@RequiredArgsConstructor
+public class StatementJobController {
+
+    private final StatementJobService statementJobService;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StatementJobView> status(@PathVariable String id, Principal principal) {
+        return statementJobService.find(id, principal.getName()).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<?> download(@PathVariable String id, Principal principal) {
+        Optional<StatementJobView> job = statementJobService.find(id, principal.getName());
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<Path> file = statementJobService.file(id, principal.getName());
+        if (file.isEmpty()) {
+            // not finished (or failed): the body says which
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job.get());
+        }
+        StatementJobService.Format format = StatementJobService.Format.valueOf(job.get().getFormat());
+        Resource body = new FileSystemResource(file.get());
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header("Content-Disposition", "attachment; filename=statement" + format.getExtension())
+                .body(body);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ega.bank.ega_bank_api.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Picks the primary or one of the replica pools for each new connection, as decided by
+ * {@link ReplicaRouter#currentLookupKey()}. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager asks for a connection before the transaction is marked read-only, the proxy only
+ * fetches one at the first statement.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaRouter router;
+
+    ReadWriteRoutingDataSource(ReplicaRouter router, DataSource primary, Map<Object, Object> replicas) {
+        this.router = router;
+        setDefaultTargetDataSource(primary);
+        setTargetDataSources(replicas);
+        // an unknown key is a bug, not a reason to write to the primary silently
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return router.currentLookupKey();
+    }
+}
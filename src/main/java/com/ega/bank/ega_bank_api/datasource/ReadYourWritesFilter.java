@@ -0,0 +1,57 @@
+package com.ega.bank.ega_bank_api.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Tells {@link ReplicaRouter} about each authenticated user's mutating requests (anything but
+ * GET, HEAD and OPTIONS). A plain servlet filter, not part of the security filter chain: it only
+ * sees the user because it is ordered right after Spring Security's filter
+ * ({@code spring.security.filter.order}). Placed before it, every request would look anonymous
+ * and read-your-writes would be off for everyone.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter implements Ordered {
+
+    private final ReplicaRouter router;
+    private final int order;
+
+    public ReadYourWritesFilter(ReplicaRouter router,
+                                @Value("${spring.security.filter.order:-100}") int securityFilterOrder) {
+        this.router = router;
+        this.order = securityFilterOrder + 1;
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String method = request.getMethod();
+        boolean mutating = !method.equals("GET") && !method.equals("HEAD") && !method.equals("OPTIONS");
+        // before: the client may read again as soon as the response is flushed, before we return;
+        // after: the window then counts from the end of the write
+        if (mutating) {
+            router.recordWrite(request.getRemoteUser());
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (mutating) {
+                router.recordWrite(request.getRemoteUser());
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.ega.bank.ega_bank_api.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read replicas for read-only transactions ({@code @Transactional(readOnly = true)}: transaction
+ * listings, statements, client listings). Everything else, and every read made while no replica
+ * is usable, goes to the primary.
+ * <p>
+ * Replicas take turns (round-robin) among those that are at most {@code datasource.replicas.max-lag}
+ * behind. Lag is measured with a heartbeat: every check the primary's {@code replica_heartbeat}
+ * row is stamped with the time, and each replica is behind by however much older the stamp it
+ * shows is. A replica that cannot be queried, or has never seen a stamp, is not used.
+ * <p>
+ * Read-your-writes: for {@code datasource.replicas.read-your-writes} after a user's mutating request
+ * (see {@link ReadYourWritesFilter}), that user's reads stay on the primary, so they see their
+ * own changes before they reach the replicas.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRouter implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private final List<String> urls;
+    private final String username;
+    private final String password;
+    private final long maxLagMillis;
+    private final int maximumPoolSize;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Replica> replicas = new LinkedHashMap<>();
+    // names of the replicas reads may use, replaced as a whole by each lag check
+    private volatile String[] usable = new String[0];
+    private JdbcTemplate primary;
+    private long lastBeat;
+
+    public ReplicaRouter(@Value("${datasource.replicas.urls}") List<String> urls,
+                         @Value("${datasource.replicas.username:}") String username,
+                         @Value("${datasource.replicas.password:}") String password,
+                         @Value("${datasource.replicas.max-lag:5s}") Duration maxLag,
+                         @Value("${datasource.replicas.read-your-writes:5s}") Duration readYourWrites,
+                         @Value("${datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+        this.urls = urls;
+        this.username = username;
+        this.password = password;
+        this.maxLagMillis = maxLag.toMillis();
+        this.maximumPoolSize = maximumPoolSize;
+        this.meterRegistry = meterRegistry;
+        this.recentWriters = readYourWrites.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(readYourWrites)
+                .build();
+    }
+
+    /**
+     * Returns the data source to use in place of {@code primaryDataSource}: the primary plus one
+     * pool per replica URL, chosen per transaction.
+     */
+    public DataSource route(DataSource primaryDataSource) {
+        if (primary != null) {
+            throw new IllegalStateException("Replica routing is already set up");
+        }
+        primary = new JdbcTemplate(primaryDataSource);
+        HikariDataSource primaryPool = unwrapHikari(primaryDataSource);
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            // the no-argument constructor defers starting the pool to the first connection
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(urls.get(i).trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setReadOnly(true);
+            pool.setMaximumPoolSize(maximumPoolSize);
+            if (primaryPool != null) {
+                pool.setConnectionTimeout(primaryPool.getConnectionTimeout());
+            }
+            replicas.put(name, new Replica(name, pool));
+            targets.put(name, pool);
+        }
+        log.info("Routing read-only transactions to {} replica(s), max lag {} ms", replicas.size(), maxLagMillis);
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(this, primaryDataSource, targets));
+    }
+
+    /**
+     * Replica name for a connection requested now, or null for the primary.
+     */
+    Object currentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || wroteRecently()) {
+            return null;
+        }
+        String[] candidates = usable;
+        if (candidates.length == 0) {
+            return null;
+        }
+        return candidates[Math.floorMod(next.getAndIncrement(), candidates.length)];
+    }
+
+    public void recordWrite(String user) {
+        if (recentWriters != null && user != null) {
+            recentWriters.put(user, Boolean.TRUE);
+        }
+    }
+
+    // the security context also follows streamed responses onto their async thread
+    private boolean wroteRecently() {
+        if (recentWriters == null) {
+            return false;
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && recentWriters.getIfPresent(auth.getName()) != null;
+    }
+
+    /**
+     * Compares each replica's heartbeat with the one stamped on the primary at the previous check,
+     * then stamps a new one.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replicas.check-interval-ms:1000}")
+    public synchronized void checkLag() {
+        if (primary == null) {
+            return;
+        }
+        List<String> ok = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas.values()) {
+            long lag = lagOf(replica);
+            boolean usableNow = lag >= 0 && lag <= maxLagMillis;
+            if (usableNow != replica.usable) {
+                log.warn("Replica {} {} (lag {} ms)", replica.name, usableNow ? "in use" : "out of use", lag);
+                replica.usable = usableNow;
+            }
+            replica.lagMillis.set(lag);
+            if (usableNow) {
+                ok.add(replica.name);
+            }
+        }
+        usable = ok.toArray(new String[0]);
+        lastBeat = beat();
+    }
+
+    // -1 when unknown: no heartbeat stamped yet, replica unreachable or never replicated one
+    private long lagOf(Replica replica) {
+        if (lastBeat == 0) {
+            return -1;
+        }
+        try {
+            List<Long> seen = new JdbcTemplate(replica.pool).queryForList("select beat from replica_heartbeat where id = 1", Long.class);
+            return seen.isEmpty() ? -1 : Math.max(0, lastBeat - seen.get(0));
+        } catch (DataAccessException ex) {
+            log.debug("Heartbeat read failed on {}", replica.name, ex);
+            return -1;
+        }
+    }
+
+    private long beat() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update("update replica_heartbeat set beat = ? where id = 1", now) == 0) {
+                primary.update("insert into replica_heartbeat (id, beat) values (1, ?)", now);
+            }
+            return now;
+        } catch (DataAccessException ex) {
+            // first run: the table replicates to the replicas like any other
+            primary.execute("create table if not exists replica_heartbeat (id int primary key, beat bigint not null)");
+            return 0;
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        for (Replica replica : replicas.values()) {
+            replica.pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            Gauge.builder("datasource.replica.lag", replica.lagMillis, AtomicLong::get)
+                    .tag("replica", replica.name)
+                    .baseUnit("milliseconds")
+                    .description("Replica lag behind the primary at the last check, -1 when unknown")
+                    .register(registry);
+        }
+        Gauge.builder("datasource.replicas.usable", this, r -> r.usable.length).register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        replicas.values().forEach(r -> r.pool.close());
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private final AtomicLong lagMillis = new AtomicLong(-1);
+        private boolean usable;
+
+        private Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ega.bank.ega_bank_api.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the auto-configured {@code dataSource} (the primary, configured by
+ * {@code spring.datasource.*}) with {@link ReplicaRouter}'s routing data source. Ordered ahead of
+ * the SQL accounting wrapper so that statements on the replicas are counted too.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<ReplicaRouter> router;
+
+    public ReplicaRoutingPostProcessor(ObjectProvider<ReplicaRouter> router) {
+        this.router = router;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+            return router.getObject().route(dataSource);
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
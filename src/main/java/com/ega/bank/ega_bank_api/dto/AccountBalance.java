@@ -0,0 +1,15 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import com.ega.bank.ega_bank_api.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalance {
+    private Long id;
+    private Money balance;
+    private int stripes;
+}
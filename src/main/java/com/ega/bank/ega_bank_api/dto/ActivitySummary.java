@@ -0,0 +1,48 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import com.ega.bank.ega_bank_api.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * An account's movements over one day or one calendar month ({@code period} is its first day):
+ * how many of each kind and their totals.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivitySummary {
+
+    public enum Granularity {
+        DAY,
+        MONTH
+    }
+
+    private LocalDate period;
+    private long depositCount;
+    private Money depositTotal;
+    private long withdrawalCount;
+    private Money withdrawalTotal;
+    private long transferInCount;
+    private Money transferInTotal;
+    private long transferOutCount;
+    private Money transferOutTotal;
+
+    // JPQL constructor expressions: per day, and per year and month; the queries sum counts and minor units
+    public ActivitySummary(LocalDate day, Number depositCount, Number depositMinor, Number withdrawalCount, Number withdrawalMinor,
+                           Number transferInCount, Number transferInMinor, Number transferOutCount, Number transferOutMinor) {
+        this(day, depositCount.longValue(), Money.ofMinor(depositMinor.longValue()),
+                withdrawalCount.longValue(), Money.ofMinor(withdrawalMinor.longValue()),
+                transferInCount.longValue(), Money.ofMinor(transferInMinor.longValue()),
+                transferOutCount.longValue(), Money.ofMinor(transferOutMinor.longValue()));
+    }
+
+    public ActivitySummary(Number year, Number month, Number depositCount, Number depositMinor, Number withdrawalCount, Number withdrawalMinor,
+                           Number transferInCount, Number transferInMinor, Number transferOutCount, Number transferOutMinor) {
+        this(LocalDate.of(year.intValue(), month.intValue(), 1), depositCount, depositMinor, withdrawalCount, withdrawalMinor,
+                transferInCount, transferInMinor, transferOutCount, transferOutMinor);
+    }
+}
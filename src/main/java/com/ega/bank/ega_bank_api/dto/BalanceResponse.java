@@ -0,0 +1,15 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import com.ega.bank.ega_bank_api.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BalanceResponse {
+    private String accountNumber;
+    private LocalDateTime asOf;
+    private Money balance;
+}
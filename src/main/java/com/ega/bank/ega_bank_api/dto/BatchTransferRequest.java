@@ -0,0 +1,26 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransferRequest {
+
+    public enum Mode {
+        // every leg is applied, or none is when any leg fails
+        ALL_OR_NOTHING,
+        // valid legs are applied, failing legs are reported and skipped
+        PER_LEG
+    }
+
+    @NotEmpty(message = "transfers is required")
+    @Size(max = 10000, message = "at most 10000 transfers per batch")
+    @Valid
+    private List<TransferRequest> transfers;
+
+    private Mode mode = Mode.ALL_OR_NOTHING;
+}
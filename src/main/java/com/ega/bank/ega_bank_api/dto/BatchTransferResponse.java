@@ -0,0 +1,15 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchTransferResponse {
+    private BatchTransferRequest.Mode mode;
+    private int applied;
+    private int failed;
+    private List<TransferLegResult> results;
+}
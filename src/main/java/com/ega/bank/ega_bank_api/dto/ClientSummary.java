@@ -0,0 +1,22 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import com.ega.bank.ega_bank_api.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientSummary {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private Long accountCount;
+    private Money totalBalance;
+
+    // JPQL constructor expression: the query sums minor units
+    public ClientSummary(Long id, String firstName, String lastName, Long accountCount, Number totalMinor) {
+        this(id, firstName, lastName, accountCount, Money.ofMinor(totalMinor.longValue()));
+    }
+}
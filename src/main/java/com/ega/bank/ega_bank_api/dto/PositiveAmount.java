@@ -0,0 +1,35 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import com.ega.bank.ega_bank_api.model.Money;
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * At least one minor unit. {@code @DecimalMin} only applies to numbers, not to {@link Money}.
+ * Null is valid; combine with {@code @NotNull}.
+ */
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = PositiveAmount.Validator.class)
+public @interface PositiveAmount {
+
+    String message() default "amount must be greater than 0";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    class Validator implements ConstraintValidator<PositiveAmount, Money> {
+        @Override
+        public boolean isValid(Money value, ConstraintValidatorContext context) {
+            return value == null || value.signum() > 0;
+        }
+    }
+}
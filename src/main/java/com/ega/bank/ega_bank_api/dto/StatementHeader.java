@@ -0,0 +1,19 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import com.ega.bank.ega_bank_api.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class StatementHeader {
+    private String accountNumber;
+    private String owner;
+    private Money balance;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Money openingBalance;
+    private Money closingBalance;
+}
@@ -0,0 +1,23 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class StatementJobView {
+    private String id;
+    private String accountNumber;
+    private String format;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private String status;
+    private Long rows;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    // set once the file is ready
+    private String downloadUrl;
+}
@@ -1,14 +1,12 @@
 package com.ega.bank.ega_bank_api.dto;
 
-import jakarta.validation.constraints.DecimalMin;
+import com.ega.bank.ega_bank_api.model.Money;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Data
 public class TransactionRequest {
     @NotNull(message = "amount is required")
-    @DecimalMin(value = "0.01", message = "amount must be greater than 0")
-    private BigDecimal amount;
+    @PositiveAmount
+    private Money amount;
 }
@@ -0,0 +1,39 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only view of a transaction. Built directly by JPQL constructor
+ * expressions so that listing and statement queries never materialize managed
+ * entities (and their eager account/owner graph). This is also the response body
+ * of every transaction endpoint: accounts appear by number only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionView {
+    private Long id;
+    private TransactionType type;
+    private Money amount;
+    private LocalDateTime timestamp;
+    private String sourceAccount;
+    private String destinationAccount;
+    private String description;
+
+    public static TransactionView of(Transaction t) {
+        return new TransactionView(t.getId(), t.getType(), t.getAmount(), t.getTimestamp(),
+                numberOf(t.getSourceAccount()), numberOf(t.getDestinationAccount()), t.getDescription());
+    }
+
+    private static String numberOf(Account account) {
+        return account != null ? account.getAccountNumber() : null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ega.bank.ega_bank_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TransferLegResult {
+
+    public enum Status {
+        APPLIED,
+        FAILED,
+        // valid, but not applied because another leg of an all-or-nothing batch failed
+        NOT_APPLIED
+    }
+
+    private int index;
+    private Status status;
+    private Long transactionId;
+    private String error;
+}
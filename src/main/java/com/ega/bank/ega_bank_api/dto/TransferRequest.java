@@ -1,12 +1,10 @@
 package com.ega.bank.ega_bank_api.dto;
 
-import jakarta.validation.constraints.DecimalMin;
+import com.ega.bank.ega_bank_api.model.Money;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Data
 public class TransferRequest {
     @NotBlank(message = "fromAccount is required")
@@ -16,6 +14,6 @@ public class TransferRequest {
     private String toAccount;
 
     @NotNull(message = "amount is required")
-    @DecimalMin(value = "0.01", message = "amount must be greater than 0")
-    private BigDecimal amount;
+    @PositiveAmount
+    private Money amount;
 }
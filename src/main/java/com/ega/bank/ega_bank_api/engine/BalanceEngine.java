@@ -0,0 +1,318 @@
+package com.ega.bank.ega_bank_api.engine;
+
+import com.ega.bank.ega_bank_api.dto.AccountBalance;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.exception.AccountNotFoundException;
+import com.ega.bank.ega_bank_api.exception.ServiceBusyException;
+import com.ega.bank.ega_bank_api.journal.JournalEntry;
+import com.ega.bank.ega_bank_api.journal.LedgerJournal;
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import com.ega.bank.ega_bank_api.repository.AccountRepository;
+import com.ega.bank.ega_bank_api.repository.TransactionRepository;
+import com.ega.bank.ega_bank_api.service.AccountCache;
+import com.ega.bank.ega_bank_api.service.ActivityRollups;
+import com.ega.bank.ega_bank_api.service.BalanceCheckpointService;
+import com.ega.bank.ega_bank_api.service.BalanceStripes;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional path for deposits, withdrawals and transfers that keeps balance checks off the
+ * database. Accounts are assigned to {@code engine.shards} single-threaded {@link EngineShard}s by
+ * account number; callers enqueue a command on the owning shard's lock-free ring and get a future
+ * completed once the movement is committed. A full ring, or an engine shutting down, refuses the
+ * command with {@link ServiceBusyException}.
+ * <p>
+ * Each shard commits a whole batch in one transaction: one relative, guarded {@code UPDATE} per
+ * account touched (however many movements it had in the batch), the transaction rows in JDBC
+ * batches, and the balance checkpoints. Updates are issued in account id order, the same order the
+ * row-locking paths of {@code AccountService} use, so shards never deadlock with each other or with
+ * them. A transfer runs on the source account's shard; the credit to a destination owned by
+ * another shard is part of the same transaction, so there is no window where money is in flight.
+ * <p>
+ * Enabled with {@code engine.enabled=true}. Requests that carry an {@code Idempotency-Key} keep
+ * using the transactional path, where the key is committed together with the movement.
+ */
+@Component
+@ConditionalOnProperty(name = "engine.enabled", havingValue = "true")
+public class BalanceEngine implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceEngine.class);
+
+    // far beyond any batch commit: past it the shard is stuck or stopped, and the request gets an error
+    static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * A guarded update found the row below what the shard expected: it was debited outside the engine.
+     */
+    static final class StaleBalanceException extends RuntimeException {
+        StaleBalanceException(Long accountId) {
+            super("Balance of account " + accountId + " changed outside the engine", null, false, false);
+        }
+    }
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final AccountCache accountCache;
+    private final BalanceStripes balanceStripes;
+    private final ActivityRollups activityRollups;
+    private final ObjectProvider<LedgerJournal> journal;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batchSizes;
+    private final EngineShard[] shards;
+    private final Thread[] threads;
+
+    public BalanceEngine(AccountRepository accountRepository,
+                         TransactionRepository transactionRepository,
+                         BalanceCheckpointService balanceCheckpointService,
+                         AccountCache accountCache,
+                         BalanceStripes balanceStripes,
+                         ActivityRollups activityRollups,
+                         ObjectProvider<LedgerJournal> journal,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${engine.shards:4}") int shardCount,
+                         @Value("${engine.ring-size:4096}") int ringSize,
+                         @Value("${engine.batch-size:256}") int batchSize) {
+        if (shardCount <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("engine.shards and engine.batch-size must be positive");
+        }
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.accountCache = accountCache;
+        this.balanceStripes = balanceStripes;
+        this.activityRollups = activityRollups;
+        this.journal = journal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSizes = DistributionSummary.builder("engine.batch.size")
+                .description("Movements committed per balance engine transaction")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue((double) batchSize)
+                .register(meterRegistry);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("balance-shard-");
+        threadFactory.setDaemon(true);
+        this.shards = new EngineShard[shardCount];
+        this.threads = new Thread[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new EngineShard(this, ringSize, batchSize);
+            threads[i] = threadFactory.newThread(shards[i]);
+            threads[i].start();
+        }
+    }
+
+    public CompletableFuture<TransactionView> deposit(String accountNumber, Money amount) {
+        Account account = resolve(accountNumber, "Account not found");
+        return submit(accountNumber, new Command(TransactionType.DEPOSIT, amount, null, account));
+    }
+
+    public CompletableFuture<TransactionView> withdraw(String accountNumber, Money amount) {
+        Account account = resolve(accountNumber, "Account not found");
+        return submit(accountNumber, new Command(TransactionType.WITHDRAWAL, amount, account, null));
+    }
+
+    public CompletableFuture<TransactionView> transfer(String fromAccountNumber, String toAccountNumber, Money amount) {
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            throw new IllegalArgumentException("Source and destination must differ");
+        }
+        Account source = resolve(fromAccountNumber, "Source account not found");
+        Account destination = resolve(toAccountNumber, "Destination account not found");
+        return submit(fromAccountNumber, new Command(TransactionType.TRANSFER, amount, source, destination));
+    }
+
+    /**
+     * Waits at most {@link #AWAIT_TIMEOUT} for {@code future} and rethrows a failure as the
+     * exception the shard raised, so the usual HTTP mapping applies.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(AWAIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(ex.getCause());
+        } catch (TimeoutException ex) {
+            // the command may still be committed later: the caller has to check before retrying
+            throw new ServiceBusyException("Balance engine did not answer in time, check the account before retrying");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for the balance engine");
+        }
+    }
+
+    private CompletableFuture<TransactionView> submit(String accountNumber, Command command) {
+        EngineShard shard = shards[Math.floorMod(accountNumber.hashCode(), shards.length)];
+        if (!shard.offer(command)) {
+            throw new ServiceBusyException("Balance engine queue full, retry later");
+        }
+        return command.result;
+    }
+
+    private Account resolve(String accountNumber, String notFoundMessage) {
+        return accountCache.findMetadata(accountNumber).orElseThrow(() -> new AccountNotFoundException(notFoundMessage));
+    }
+
+    // the row's balance, with a hot account's stripes folded in first so the guard can count on them
+    Money loadBalance(Long accountId) {
+        return balanceStripes.consolidateById(accountId);
+    }
+
+    /**
+     * Commits {@code commands} in one transaction and returns the resulting balance of every
+     * account touched. Sets each command's transaction id and timestamp. Called from shard threads.
+     */
+    Map<Long, Money> commit(List<Command> commands) {
+        // per account: net delta and lowest running delta in minor units, in id order for the updates
+        Map<Long, long[]> movements = new TreeMap<>();
+        for (Command c : commands) {
+            if (c.source != null) {
+                move(movements, c.source.getId(), -c.amount.getMinor());
+            }
+            if (c.destination != null) {
+                move(movements, c.destination.getId(), c.amount.getMinor());
+            }
+        }
+        Map<Long, Money> after = transactionTemplate.execute(status -> {
+            for (Map.Entry<Long, long[]> e : movements.entrySet()) {
+                if (accountRepository.applyDelta(e.getKey(), e.getValue()[0], e.getValue()[1]) == 0) {
+                    throw new StaleBalanceException(e.getKey());
+                }
+            }
+            // only now that the rows are locked, as on the row-locking paths: timestamp order must
+            // follow commit order per account, which checkpoints and the delta scans after them rely on
+            LocalDateTime now = LocalDateTime.now();
+            List<Transaction> txs = new ArrayList<>(commands.size());
+            for (Command c : commands) {
+                Transaction tx = new Transaction();
+                tx.setType(c.type);
+                tx.setAmount(c.amount);
+                tx.setSourceAccount(c.source != null ? accountRepository.getReferenceById(c.source.getId()) : null);
+                tx.setDestinationAccount(c.destination != null ? accountRepository.getReferenceById(c.destination.getId()) : null);
+                tx.setTimestamp(now);
+                txs.add(tx);
+                c.timestamp = now;
+            }
+            transactionRepository.saveAll(txs);
+            activityRollups.record(txs);
+            Map<Long, Money> balances = new HashMap<>();
+            Set<Long> hot = new HashSet<>();
+            for (AccountBalance b : accountRepository.findBalancesByIdIn(movements.keySet())) {
+                balances.put(b.getId(), b.getBalance());
+                if (b.getStripes() > 0) {
+                    hot.add(b.getId());
+                }
+            }
+            recordCheckpoints(commands, txs, balances, hot);
+            return balances;
+        });
+        batchSizes.record(commands.size());
+        afterCommit(commands);
+        return after;
+    }
+
+    private static void move(Map<Long, long[]> movements, Long accountId, long amount) {
+        long[] m = movements.computeIfAbsent(accountId, id -> new long[2]);
+        m[0] = Math.addExact(m[0], amount);
+        m[1] = Math.min(m[1], m[0]);
+    }
+
+    // checkpoints need the balance right after each movement: walk back from the final balances.
+    // Hot accounts get none, their row is not their whole balance (see BalanceStripes)
+    private void recordCheckpoints(List<Command> commands, List<Transaction> txs, Map<Long, Money> finalBalances, Set<Long> hot) {
+        Map<Long, Money> running = new HashMap<>(finalBalances);
+        Money[] sourceAfter = new Money[commands.size()];
+        Money[] destinationAfter = new Money[commands.size()];
+        for (int i = commands.size() - 1; i >= 0; i--) {
+            Command c = commands.get(i);
+            if (c.destination != null) {
+                destinationAfter[i] = running.get(c.destination.getId());
+                running.put(c.destination.getId(), destinationAfter[i].minus(c.amount));
+            }
+            if (c.source != null) {
+                sourceAfter[i] = running.get(c.source.getId());
+                running.put(c.source.getId(), sourceAfter[i].plus(c.amount));
+            }
+        }
+        for (int i = 0; i < commands.size(); i++) {
+            Command c = commands.get(i);
+            Transaction tx = txs.get(i);
+            c.transactionId = tx.getId();
+            if (c.source != null && !hot.contains(c.source.getId())) {
+                balanceCheckpointService.recordIfDue(c.source.getId(), sourceAfter[i], tx);
+            }
+            if (c.destination != null && !hot.contains(c.destination.getId())) {
+                balanceCheckpointService.recordIfDue(c.destination.getId(), destinationAfter[i], tx);
+            }
+        }
+    }
+
+    private void afterCommit(List<Command> commands) {
+        Set<String> numbers = new LinkedHashSet<>();
+        List<JournalEntry> entries = new ArrayList<>(commands.size());
+        for (Command c : commands) {
+            if (c.source != null) {
+                numbers.add(c.source.getAccountNumber());
+            }
+            if (c.destination != null) {
+                numbers.add(c.destination.getAccountNumber());
+            }
+            entries.add(new JournalEntry(0, c.transactionId, c.type, c.amount,
+                    c.source != null ? c.source.getId() : null,
+                    c.destination != null ? c.destination.getId() : null, c.timestamp));
+        }
+        numbers.forEach(accountCache::evict);
+        LedgerJournal j = journal.getIfAvailable();
+        if (j != null) {
+            try {
+                j.append(entries);
+            } catch (RuntimeException ex) {
+                log.error("Journal append failed for {} engine movements", entries.size(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (EngineShard shard : shards) {
+            shard.stop();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join(TimeUnit.SECONDS.toMillis(10));
+            if (!threads[i].isAlive()) {
+                shards[i].failPending();
+            }
+        }
+    }
+}
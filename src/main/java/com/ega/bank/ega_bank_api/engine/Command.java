@@ -0,0 +1,38 @@
+package com.ega.bank.ega_bank_api.engine;
+
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One requested movement on its way through a shard. The accounts are cached metadata snapshots
+ * (id and number); the missing side of a deposit or withdrawal is null.
+ */
+final class Command {
+
+    final TransactionType type;
+    final Money amount;
+    final Account source;
+    final Account destination;
+    final CompletableFuture<TransactionView> result = new CompletableFuture<>();
+    // set by the commit, read by the shard once it returns
+    Long transactionId;
+    LocalDateTime timestamp;
+
+    Command(TransactionType type, Money amount, Account source, Account destination) {
+        this.type = type;
+        this.amount = amount;
+        this.source = source;
+        this.destination = destination;
+    }
+
+    TransactionView view() {
+        return new TransactionView(transactionId, type, amount, timestamp,
+                source != null ? source.getAccountNumber() : null,
+                destination != null ? destination.getAccountNumber() : null, null);
+    }
+}
@@ -0,0 +1,207 @@
+package com.ega.bank.ega_bank_api.engine;
+
+import com.ega.bank.ega_bank_api.exception.InsufficientFundsException;
+import com.ega.bank.ega_bank_api.exception.ServiceBusyException;
+import com.ega.bank.ega_bank_api.model.Money;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-threaded processor for the accounts routed to one shard. Drains up to
+ * {@code batchSize} commands from its ring, checks each debit against the balances it holds in
+ * memory, and commits every accepted command of the batch in one database transaction.
+ * <p>
+ * Only this shard debits its accounts, but other shards credit them (transfers in) and the
+ * non-engine endpoints may move them too, so the in-memory balance is a hint: a debit that does
+ * not fit is checked again against the database before being refused, every commit refreshes the
+ * balances from the rows it updated, and the guarded update in the commit catches a balance that
+ * dropped behind the shard's back, after which the batch is replayed one command at a time.
+ */
+final class EngineShard implements Runnable {
+
+    private static final int SPINS = 200;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final BalanceEngine engine;
+    private final MpscRingBuffer<Command> ring;
+    private final int batchSize;
+    // everything below is confined to the shard thread
+    private final Map<Long, Money> balances = new HashMap<>();
+    // net movement per account accepted in the batch being built, not yet committed
+    private final Map<Long, Money> pending = new HashMap<>();
+    private volatile Thread thread;
+    private volatile boolean waiting;
+    private volatile boolean running = true;
+
+    EngineShard(BalanceEngine engine, int ringSize, int batchSize) {
+        this.engine = engine;
+        this.ring = new MpscRingBuffer<>(ringSize);
+        this.batchSize = batchSize;
+    }
+
+    boolean offer(Command command) {
+        if (!running) {
+            throw new ServiceBusyException("Balance engine stopped, retry later");
+        }
+        if (!ring.offer(command)) {
+            return false;
+        }
+        if (waiting) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Fails whatever is still in the ring: commands offered while the shard was stopping. Only once
+     * the shard thread has ended, as it is the ring's only consumer.
+     */
+    void failPending() {
+        ring.drain(c -> c.result.completeExceptionally(new ServiceBusyException("Balance engine stopped, retry later")), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        List<Command> batch = new ArrayList<>(batchSize);
+        int idle = 0;
+        while (running || !ring.isEmpty()) {
+            ring.drain(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            try {
+                process(batch);
+            } catch (RuntimeException ex) {
+                // e.g. a balance could not be loaded; nothing was committed, start from the database again
+                balances.clear();
+                batch.forEach(c -> c.result.completeExceptionally(ex));
+            }
+            batch.clear();
+        }
+    }
+
+    private int idle(int idle) {
+        if (idle < SPINS) {
+            Thread.onSpinWait();
+            return idle + 1;
+        }
+        waiting = true;
+        // producers check the flag after publishing, so a command offered from here on unparks us
+        if (ring.isEmpty() && running) {
+            LockSupport.parkNanos(this, PARK_NANOS);
+        }
+        waiting = false;
+        return idle;
+    }
+
+    private void process(List<Command> batch) {
+        List<Command> accepted = accept(batch);
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            settle(accepted, engine.commit(accepted));
+        } catch (BalanceEngine.StaleBalanceException ex) {
+            forget(accepted);
+            for (Command c : accepted) {
+                retry(c);
+            }
+        } catch (RuntimeException ex) {
+            forget(accepted);
+            accepted.forEach(c -> c.result.completeExceptionally(ex));
+        }
+    }
+
+    private void retry(Command command) {
+        List<Command> single = List.of(command);
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (accept(single).isEmpty()) {
+                return;
+            }
+            try {
+                settle(single, engine.commit(single));
+                return;
+            } catch (BalanceEngine.StaleBalanceException ex) {
+                forget(single);
+            } catch (RuntimeException ex) {
+                forget(single);
+                command.result.completeExceptionally(ex);
+                return;
+            }
+        }
+        command.result.completeExceptionally(new ServiceBusyException("Balance changed concurrently, retry later"));
+    }
+
+    // refuses what does not fit and applies the rest to the in-memory balances, in arrival order
+    private List<Command> accept(List<Command> batch) {
+        pending.clear();
+        List<Command> accepted = new ArrayList<>(batch.size());
+        for (Command c : batch) {
+            if (c.source != null) {
+                Long id = c.source.getId();
+                Money balance = balance(id);
+                if (balance.isLessThan(c.amount)) {
+                    // credits committed elsewhere since we last looked
+                    balance = balance.max(engine.loadBalance(id).plus(pending.getOrDefault(id, Money.ZERO)));
+                    balances.put(id, balance);
+                }
+                if (balance.isLessThan(c.amount)) {
+                    c.result.completeExceptionally(new InsufficientFundsException(
+                            c.destination != null ? "Insufficient funds for transfer" : "Insufficient funds"));
+                    continue;
+                }
+                balances.put(id, balance.minus(c.amount));
+                pending.merge(id, c.amount.negate(), Money::plus);
+            }
+            if (c.destination != null) {
+                Long id = c.destination.getId();
+                balances.computeIfPresent(id, (k, b) -> b.plus(c.amount));
+                pending.merge(id, c.amount, Money::plus);
+            }
+            accepted.add(c);
+        }
+        return accepted;
+    }
+
+    private Money balance(Long id) {
+        Money balance = balances.get(id);
+        if (balance == null) {
+            balance = engine.loadBalance(id).plus(pending.getOrDefault(id, Money.ZERO));
+            balances.put(id, balance);
+        }
+        return balance;
+    }
+
+    private void settle(List<Command> committed, Map<Long, Money> after) {
+        // exact as of our commit, including credits other shards committed before it
+        after.forEach((id, balance) -> balances.computeIfPresent(id, (k, b) -> balance));
+        for (Command c : committed) {
+            c.result.complete(c.view());
+        }
+    }
+
+    private void forget(List<Command> commands) {
+        for (Command c : commands) {
+            if (c.source != null) {
+                balances.remove(c.source.getId());
+            }
+            if (c.destination != null) {
+                balances.remove(c.destination.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ega.bank.ega_bank_api.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each slot carries a
+ * sequence number: producers claim a position with one CAS on {@code tail} and publish the slot by
+ * advancing its sequence; the consumer reads published slots in order and hands them back to the
+ * producers one lap later. No locks and no allocation per element.
+ */
+final class MpscRingBuffer<E> {
+
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // consumer thread only
+    private long head;
+
+    MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two, got " + capacity);
+        }
+        this.items = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds {@code item} unless the ring is full. Safe from any thread.
+     */
+    boolean offer(E item) {
+        long position;
+        while (true) {
+            position = tail.get();
+            long diff = sequences.get((int) position & mask) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                // the slot still holds the element from the previous lap
+                return false;
+            }
+            // otherwise another producer took this position first; retry with the new tail
+        }
+        int index = (int) position & mask;
+        items[index] = item;
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Passes up to {@code limit} elements to {@code consumer}, oldest first, and returns how many.
+     * Consumer thread only.
+     */
+    @SuppressWarnings("unchecked")
+    int drain(Consumer<E> consumer, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            E item = (E) items[index];
+            items[index] = null;
+            sequences.set(index, head + items.length);
+            head++;
+            drained++;
+            consumer.accept(item);
+        }
+        return drained;
+    }
+
+    /**
+     * Consumer thread only.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
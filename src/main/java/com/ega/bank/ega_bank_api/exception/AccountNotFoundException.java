@@ -0,0 +1,6 @@
+package com.ega.bank.ega_bank_api.exception;
+
+// Still an IllegalArgumentException, so it keeps mapping to 400
+public class AccountNotFoundException extends IllegalArgumentException {
+    public AccountNotFoundException(String msg) { super(msg); }
+}
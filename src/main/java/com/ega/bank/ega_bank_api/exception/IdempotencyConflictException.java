@@ -0,0 +1,8 @@
+package com.ega.bank.ega_bank_api.exception;
+
+/**
+ * An Idempotency-Key was reused for a different request (HTTP 409).
+ */
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String msg) { super(msg); }
+}
@@ -0,0 +1,8 @@
+package com.ega.bank.ega_bank_api.exception;
+
+/**
+ * A bounded worker pool or queue is full; the request can be retried later (HTTP 503).
+ */
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String msg) { super(msg); }
+}
@@ -0,0 +1,38 @@
+package com.ega.bank.ega_bank_api.journal;
+
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One committed ledger movement as stored in the journal. Accounts are referenced by id; a
+ * missing side (the source of a deposit, the destination of a withdrawal) is null.
+ * {@code sequence} is assigned by the journal on append and is independent of the transaction id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalEntry {
+    private long sequence;
+    private Long transactionId;
+    private TransactionType type;
+    private Money amount;
+    private Long sourceAccountId;
+    private Long destinationAccountId;
+    private LocalDateTime timestamp;
+
+    public static JournalEntry of(Transaction t) {
+        return new JournalEntry(0, t.getId(), t.getType(), t.getAmount(),
+                idOf(t.getSourceAccount()), idOf(t.getDestinationAccount()), t.getTimestamp());
+    }
+
+    private static Long idOf(Account account) {
+        return account != null ? account.getId() : null;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ega.bank.ega_bank_api.journal;
+
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed 64-byte record layout, native to the mapped segment buffers (big-endian):
+ * <pre>
+ *  0  int   magic (written last; 0 marks an unused slot)
+ *  4  byte  type code        5  byte amount scale       6  short reserved
+ *  8  long  sequence
+ * 16  long  transaction id (0 = none)
+ * 24  long  amount, unscaled (Money minor units, scale 2)
+ * 32  long  source account id (0 = none)
+ * 40  long  destination account id (0 = none)
+ * 48  long  timestamp, microseconds since 1970-01-01T00:00 (local time, as stored in the table)
+ * 56  int   reserved
+ * 60  int   CRC32C of bytes 4..59
+ * </pre>
+ */
+final class JournalFormat {
+
+    static final int RECORD_SIZE = 64;
+    static final String SEGMENT_PREFIX = "ledger-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final int MAGIC = 0x4C4A524E; // "LJRN"
+    private static final int BODY_OFFSET = 4;
+    private static final int BODY_LENGTH = 56;
+    private static final int CRC_OFFSET = 60;
+
+    private JournalFormat() {
+    }
+
+    static String segmentName(long firstSequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX);
+    }
+
+    static void write(ByteBuffer buffer, int offset, JournalEntry entry) {
+        buffer.put(offset + 4, typeCode(entry.getType()));
+        buffer.put(offset + 5, (byte) Money.SCALE);
+        buffer.putShort(offset + 6, (short) 0);
+        buffer.putLong(offset + 8, entry.getSequence());
+        buffer.putLong(offset + 16, orZero(entry.getTransactionId()));
+        buffer.putLong(offset + 24, entry.getAmount().getMinor());
+        buffer.putLong(offset + 32, orZero(entry.getSourceAccountId()));
+        buffer.putLong(offset + 40, orZero(entry.getDestinationAccountId()));
+        buffer.putLong(offset + 48, toMicros(entry.getTimestamp()));
+        buffer.putInt(offset + 56, 0);
+        buffer.putInt(offset + CRC_OFFSET, crc(buffer, offset));
+        buffer.putInt(offset, MAGIC);
+    }
+
+    static boolean isEmpty(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset) == 0;
+    }
+
+    /**
+     * Whether the slot holds a complete, uncorrupted record for {@code expectedSequence}.
+     */
+    static boolean isValid(ByteBuffer buffer, int offset, long expectedSequence) {
+        return buffer.getInt(offset) == MAGIC
+                && buffer.getLong(offset + 8) == expectedSequence
+                && buffer.getInt(offset + CRC_OFFSET) == crc(buffer, offset);
+    }
+
+    static JournalEntry read(ByteBuffer buffer, int offset) {
+        return new JournalEntry(
+                buffer.getLong(offset + 8),
+                orNull(buffer.getLong(offset + 16)),
+                type(buffer.get(offset + 4)),
+                amount(buffer.getLong(offset + 24), buffer.get(offset + 5)),
+                orNull(buffer.getLong(offset + 32)),
+                orNull(buffer.getLong(offset + 40)),
+                fromMicros(buffer.getLong(offset + 48)));
+    }
+
+    // files written before amounts were Money may carry another scale
+    private static Money amount(long unscaled, byte scale) {
+        return scale == Money.SCALE ? Money.ofMinor(unscaled) : Money.of(BigDecimal.valueOf(unscaled, scale));
+    }
+
+    private static int crc(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + BODY_OFFSET, BODY_LENGTH));
+        return (int) crc.getValue();
+    }
+
+    // explicit codes so that reordering the enum cannot change the meaning of existing files
+    private static byte typeCode(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT -> 1;
+            case WITHDRAWAL -> 2;
+            case TRANSFER -> 3;
+        };
+    }
+
+    private static TransactionType type(byte code) {
+        return switch (code) {
+            case 1 -> TransactionType.DEPOSIT;
+            case 2 -> TransactionType.WITHDRAWAL;
+            case 3 -> TransactionType.TRANSFER;
+            default -> throw new IllegalStateException("Unknown journal record type " + code);
+        };
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static Long orNull(long value) {
+        return value != 0L ? value : null;
+    }
+}
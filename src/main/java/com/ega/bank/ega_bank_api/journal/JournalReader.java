@@ -0,0 +1,93 @@
+package com.ega.bank.ega_bank_api.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.ega.bank.ega_bank_api.journal.JournalFormat.RECORD_SIZE;
+
+/**
+ * Sequential replay of a journal directory. Segments are mapped read-only and scanned slot by
+ * slot, so a replay reads the files once, front to back, without touching the database. Every
+ * record's CRC and sequence are checked; a bad record ends the replay quietly only at the end
+ * of the last segment (a write in progress or torn by a crash), anywhere else it is an error.
+ * Safe to run while the journal is being appended to.
+ */
+public class JournalReader {
+
+    private final Path directory;
+
+    public JournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Passes every record with a sequence at or after {@code fromSequence} to {@code consumer},
+     * in sequence order, and returns the last sequence delivered ({@code fromSequence - 1} if none).
+     */
+    public long replay(long fromSequence, Consumer<JournalEntry> consumer) throws IOException {
+        List<Path> files = segments(directory);
+        long last = fromSequence - 1;
+        long expected = -1;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            boolean tail = i == files.size() - 1;
+            if (!tail && firstSequence(files.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            long first = firstSequence(file);
+            if (expected != -1 && first != expected) {
+                throw new IllegalStateException("Journal gap: expected sequence " + expected + " but "
+                        + file.getFileName() + " starts at " + first);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                int slots = (int) (channel.size() / RECORD_SIZE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) slots * RECORD_SIZE);
+                for (int slot = (int) Math.max(0, Math.min(slots, fromSequence - first)); slot < slots; slot++) {
+                    int offset = slot * RECORD_SIZE;
+                    if (JournalFormat.isEmpty(buffer, offset)) {
+                        break;
+                    }
+                    if (!JournalFormat.isValid(buffer, offset, first + slot)) {
+                        if (tail) {
+                            break;
+                        }
+                        throw new IllegalStateException("Corrupt journal record " + (first + slot) + " in " + file.getFileName());
+                    }
+                    JournalEntry entry = JournalFormat.read(buffer, offset);
+                    consumer.accept(entry);
+                    last = entry.getSequence();
+                }
+                // segments are only rolled when full, so the next one starts right after this one's last slot
+                expected = first + slots;
+            }
+        }
+        return last;
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // zero-padded sequence in the name, so lexical order is sequence order
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(JournalFormat.SEGMENT_PREFIX) && name.endsWith(JournalFormat.SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(JournalFormat.SEGMENT_PREFIX.length(), name.length() - JournalFormat.SEGMENT_SUFFIX.length()));
+    }
+}
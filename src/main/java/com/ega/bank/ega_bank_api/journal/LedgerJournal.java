@@ -0,0 +1,298 @@
+package com.ega.bank.ega_bank_api.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.ega.bank.ega_bank_api.journal.JournalFormat.RECORD_SIZE;
+
+/**
+ * Append-only binary journal of committed ledger movements, fed by {@code AccountService} after
+ * each commit. Records are fixed-size (see {@link JournalFormat}) and written into memory-mapped
+ * segment files of {@code journal.segment-size}; a full segment is forced to disk and the next
+ * one is named after its first sequence.
+ * <p>
+ * Appends only copy bytes into the mapping. A single flusher thread fsyncs on behalf of every
+ * append that arrived since the previous fsync (group commit) and then completes their futures;
+ * {@code journal.flush-interval} is the minimum gap between two fsyncs. On startup the last
+ * segment is scanned and a torn tail is discarded.
+ * <p>
+ * The database stays the system of record: an append that fails after commit is logged, not
+ * retried, and each record carries its transaction id for reconciliation. Records are in
+ * after-commit order, which may differ from commit order between concurrent transactions;
+ * summing deltas per account gives the committed balances regardless.
+ */
+@Component
+@ConditionalOnProperty(name = "journal.enabled", havingValue = "true")
+public class LedgerJournal implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerJournal.class);
+
+    private final Path directory;
+    private final int slotsPerSegment;
+    private final long flushIntervalNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    // appends waiting for an fsync, in sequence order; guarded by lock
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private final Thread flusher;
+    private Segment segment;
+    private long nextSequence;
+    private boolean closed;
+    private volatile long durableSequence;
+
+    @Autowired
+    public LedgerJournal(@Value("${journal.dir:data/journal}") String directory,
+                         @Value("${journal.segment-size:64MB}") DataSize segmentSize,
+                         @Value("${journal.flush-interval:1ms}") Duration flushInterval) throws IOException {
+        this(Path.of(directory), segmentSize.toBytes(), flushInterval);
+    }
+
+    public LedgerJournal(Path directory, long segmentBytes, Duration flushInterval) throws IOException {
+        if (segmentBytes < RECORD_SIZE || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("journal.segment-size must be between 64 bytes and 2GB");
+        }
+        this.directory = directory;
+        this.slotsPerSegment = (int) (segmentBytes / RECORD_SIZE);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        Files.createDirectories(directory);
+        recover();
+        this.flusher = new Thread(this::flushLoop, "ledger-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Appends the entries, assigning consecutive sequences, and returns a future completed with
+     * the last sequence once it is on disk.
+     */
+    public CompletableFuture<Long> append(List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return CompletableFuture.completedFuture(durableSequence);
+        }
+        CompletableFuture<Long> durable = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            for (JournalEntry entry : entries) {
+                if (segment.used == segment.slots) {
+                    roll();
+                }
+                entry.setSequence(nextSequence);
+                JournalFormat.write(segment.buffer, segment.used * RECORD_SIZE, entry);
+                segment.used++;
+                nextSequence++;
+            }
+            pending.add(new Pending(nextSequence - 1, durable));
+            appended.signal();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            lock.unlock();
+        }
+        return durable;
+    }
+
+    /**
+     * Sequence of the last appended record, durable or not (0 when empty).
+     */
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sequence of the last record known to be on disk.
+     */
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = JournalReader.segments(directory);
+        Path last = files.isEmpty() ? null : files.get(files.size() - 1);
+        if (last != null && Files.size(last) < RECORD_SIZE) {
+            // created but never mapped (crash during rollover): recreate it at full size
+            Files.delete(last);
+            long first = JournalReader.firstSequence(last);
+            segment = Segment.create(directory, first, slotsPerSegment);
+            nextSequence = first;
+        } else if (last == null) {
+            segment = Segment.create(directory, 1, slotsPerSegment);
+            nextSequence = 1;
+        } else {
+            segment = Segment.open(last, JournalReader.firstSequence(last));
+            int slot = 0;
+            while (slot < segment.slots && JournalFormat.isValid(segment.buffer, slot * RECORD_SIZE, segment.firstSequence + slot)) {
+                slot++;
+            }
+            if (slot < segment.slots && !JournalFormat.isEmpty(segment.buffer, slot * RECORD_SIZE)) {
+                log.warn("Discarding torn journal tail from sequence {} in {}", segment.firstSequence + slot, last);
+                for (int offset = slot * RECORD_SIZE; offset < segment.slots * RECORD_SIZE; offset += Long.BYTES) {
+                    segment.buffer.putLong(offset, 0L);
+                }
+                segment.buffer.force();
+            }
+            segment.used = slot;
+            nextSequence = segment.firstSequence + slot;
+        }
+        durableSequence = nextSequence - 1;
+    }
+
+    // called with the lock held; the full segment is forced before the new one takes appends
+    private void roll() throws IOException {
+        segment.close();
+        segment = Segment.create(directory, nextSequence, slotsPerSegment);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            Segment current;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    appended.await();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                target = nextSequence - 1;
+                current = segment;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            // everything up to target is in this segment or in earlier ones, which were forced when rolled
+            RuntimeException failure = null;
+            try {
+                current.buffer.force();
+                durableSequence = target;
+            } catch (RuntimeException ex) {
+                log.error("Journal fsync failed up to sequence {}", target, ex);
+                failure = ex;
+            }
+            complete(target, failure);
+            if (flushIntervalNanos > 0) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    private void complete(long target, RuntimeException failure) {
+        List<Pending> done = new ArrayList<>();
+        lock.lock();
+        try {
+            while (!pending.isEmpty() && pending.peek().sequence <= target) {
+                done.add(pending.poll());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Pending p : done) {
+            if (failure == null) {
+                p.future.complete(p.sequence);
+            } else {
+                p.future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        lock.lock();
+        try {
+            segment.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Pending {
+        private final long sequence;
+        private final CompletableFuture<Long> future;
+
+        private Pending(long sequence, CompletableFuture<Long> future) {
+            this.sequence = sequence;
+            this.future = future;
+        }
+    }
+
+    private static final class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long firstSequence;
+        private final int slots;
+        private int used;
+
+        private Segment(FileChannel channel, long firstSequence, int slots) throws IOException {
+            this.channel = channel;
+            this.firstSequence = firstSequence;
+            this.slots = slots;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) slots * RECORD_SIZE);
+        }
+
+        static Segment create(Path directory, long firstSequence, int slots) throws IOException {
+            FileChannel channel = FileChannel.open(directory.resolve(JournalFormat.segmentName(firstSequence)),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // mapping extends the file to its full size; persist that before records are acknowledged
+            Segment segment = new Segment(channel, firstSequence, slots);
+            channel.force(true);
+            return segment;
+        }
+
+        // an existing segment keeps its own size even if journal.segment-size has changed since
+        static Segment open(Path file, long firstSequence) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(channel, firstSequence, (int) (channel.size() / RECORD_SIZE));
+        }
+
+        // the mapping itself stays valid until the buffer is garbage collected
+        void close() throws IOException {
+            buffer.force();
+            channel.close();
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
 import lombok.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -17,7 +16,8 @@ import java.util.List;
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -29,7 +29,12 @@ public class Account {
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @NotNull
-    private BigDecimal balance = BigDecimal.ZERO;
+    private Money balance = Money.ZERO;
+
+    // hot account mode: number of AccountBalanceStripe rows that receive deposits (0 = off).
+    // The account's balance is then this balance plus the stripes, see AccountRepository#findTotalBalanceById
+    @Column(nullable = false)
+    private int stripes;
 
     @ManyToOne
     @JoinColumn(name = "owner_id")
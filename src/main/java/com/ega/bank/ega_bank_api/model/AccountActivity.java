@@ -0,0 +1,59 @@
+package com.ega.bank.ega_bank_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Running totals of an account's movements on one day, kept up to date by every money-moving path
+ * and summed by the activity summary. Amounts are in minor units. A hot account's deposits are
+ * spread over several rows of the same day ({@code slot}: 1 + the balance stripe credited, 0 for
+ * everything else), so they do not all queue on one row; readers always sum the slots.
+ */
+@Entity
+@Table(name = "account_activity", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_activity_account_date_slot", columnNames = {"account_id", "activity_date", "slot"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountActivity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(name = "deposit_count", nullable = false)
+    private long depositCount;
+
+    @Column(name = "deposit_minor", nullable = false)
+    private long depositMinor;
+
+    @Column(name = "withdrawal_count", nullable = false)
+    private long withdrawalCount;
+
+    @Column(name = "withdrawal_minor", nullable = false)
+    private long withdrawalMinor;
+
+    @Column(name = "transfer_in_count", nullable = false)
+    private long transferInCount;
+
+    @Column(name = "transfer_in_minor", nullable = false)
+    private long transferInMinor;
+
+    @Column(name = "transfer_out_count", nullable = false)
+    private long transferOutCount;
+
+    @Column(name = "transfer_out_minor", nullable = false)
+    private long transferOutMinor;
+}
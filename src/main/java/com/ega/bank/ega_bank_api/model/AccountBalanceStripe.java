@@ -0,0 +1,35 @@
+package com.ega.bank.ega_bank_api.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+
+/**
+ * One of the sub-balances of a hot account (see {@link Account#getStripes()}). Deposits to a hot
+ * account are added to a randomly chosen stripe instead of the account row, so concurrent deposits
+ * lock different rows. The account's balance is its own {@code balance} plus all its stripes.
+ */
+@Entity
+@Table(name = "account_balance_stripes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_balance_stripes_account_stripe", columnNames = {"account_id", "stripe"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_balance_stripes_seq")
+    @SequenceGenerator(name = "account_balance_stripes_seq", sequenceName = "account_balance_stripes_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private int stripe;
+
+    @NotNull
+    private Money balance = Money.ZERO;
+}
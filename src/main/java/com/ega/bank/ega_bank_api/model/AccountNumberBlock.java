@@ -0,0 +1,22 @@
+package com.ega.bank.ega_bank_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * High-water mark of a number sequence. Allocators reserve whole blocks by moving
+ * {@code nextValue} forward under a row lock, then hand the block out from memory.
+ */
+@Entity
+@Table(name = "account_number_blocks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountNumberBlock {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long nextValue;
+}
@@ -0,0 +1,37 @@
+package com.ega.bank.ega_bank_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One calendar month of transactions moved out of the {@code transactions} table into a
+ * compressed file of the cold archive (see {@code TransactionArchive}).
+ */
+@Entity
+@Table(name = "archive_partitions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivePartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // first day of the month
+    @Column(name = "period_start", nullable = false, unique = true)
+    private LocalDate periodStart;
+
+    // relative to transactions.archive.dir
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "row_count", nullable = false)
+    private long rowCount;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -3,6 +3,7 @@ package com.ega.bank.ega_bank_api.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -42,6 +43,7 @@ public class Client {
     private String nationality;
 
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL)
+    @BatchSize(size = 100)
     private List<Account> accounts;
 
 }
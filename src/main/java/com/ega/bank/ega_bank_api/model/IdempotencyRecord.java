@@ -0,0 +1,52 @@
+package com.ega.bank.ega_bank_api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of a mutating request sent with an {@code Idempotency-Key}, written in the same
+ * transaction as the money movement so that a committed movement always has its record.
+ */
+@Entity
+@Table(name = "idempotency_records", indexes = {
+        @Index(name = "idx_idempotency_records_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+
+    // "<username>:<Idempotency-Key>"
+    @Id
+    @Column(name = "idempotency_key", length = 200)
+    private String key;
+
+    // SHA-256 of the operation and its parameters; a reused key with another request is rejected
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Lob
+    @Column(name = "response_body", nullable = false)
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    // written once, never updated: always persist, so a second insert of the same key fails
+    // on the primary key instead of being merged over the first
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
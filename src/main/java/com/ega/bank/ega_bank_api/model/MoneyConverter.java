@@ -0,0 +1,24 @@
+package com.ega.bank.ega_bank_api.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Stores every {@link Money} attribute as its minor units in a {@code BIGINT} column.
+ * {@code @Immutable} lets Hibernate keep the loaded instance as the dirty-checking snapshot.
+ */
+@Converter(autoApply = true)
+@Immutable
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        return money != null ? money.getMinor() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long minor) {
+        return minor != null ? Money.ofMinor(minor) : null;
+    }
+}
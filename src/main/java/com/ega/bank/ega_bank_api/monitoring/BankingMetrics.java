@@ -0,0 +1,118 @@
+package com.ega.bank.ega_bank_api.monitoring;
+
+import com.ega.bank.ega_bank_api.exception.AccountNotFoundException;
+import com.ega.bank.ega_bank_api.exception.InsufficientFundsException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the money-moving operations and statement exports.
+ * <ul>
+ *     <li>{@code bank.operations}: timer per {@code operation} (deposit, withdraw, transfer,
+ *     batch_transfer) and {@code outcome}; its count is the number of calls per outcome.</li>
+ *     <li>{@code statement.rows} and {@code statement.render}: rows per statement and time to
+ *     produce it, per {@code format} (csv, pdf).</li>
+ * </ul>
+ * Every meter is registered up front so recording is a map lookup and an atomic update.
+ */
+@Component
+public class BankingMetrics {
+
+    public static final String DEPOSIT = "deposit";
+    public static final String WITHDRAW = "withdraw";
+    public static final String TRANSFER = "transfer";
+    public static final String BATCH_TRANSFER = "batch_transfer";
+
+    public enum Outcome {
+        SUCCESS,
+        INSUFFICIENT_FUNDS,
+        NOT_FOUND,
+        INVALID,
+        ERROR
+    }
+
+    private final Map<String, Map<Outcome, Timer>> operations = new HashMap<>();
+    private final Map<String, DistributionSummary> statementRows = new HashMap<>();
+    private final Map<String, Timer> statementRender = new HashMap<>();
+
+    public BankingMetrics(MeterRegistry registry) {
+        for (String operation : new String[]{DEPOSIT, WITHDRAW, TRANSFER, BATCH_TRANSFER}) {
+            Map<Outcome, Timer> byOutcome = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                byOutcome.put(outcome, Timer.builder("bank.operations")
+                        .description("Deposits, withdrawals and transfers, including the database commit")
+                        .tag("operation", operation)
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(registry));
+            }
+            operations.put(operation, byOutcome);
+        }
+        for (String format : new String[]{"csv", "pdf"}) {
+            statementRows.put(format, DistributionSummary.builder("statement.rows")
+                    .description("Movements per generated statement")
+                    .baseUnit("rows")
+                    .tag("format", format)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(1.0)
+                    .maximumExpectedValue(1_000_000.0)
+                    .register(registry));
+            statementRender.put(format, Timer.builder("statement.render")
+                    .description("Time to read, render and write a statement")
+                    .tag("format", format)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(5))
+                    .maximumExpectedValue(Duration.ofMinutes(5))
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Runs {@code action} and records its duration under {@code operation} with the outcome
+     * derived from how it ended. Exceptions are rethrown unchanged.
+     */
+    public <T> T record(String operation, Supplier<T> action) {
+        Map<Outcome, Timer> timers = operations.get(operation);
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            T result = action.get();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (RuntimeException ex) {
+            outcome = outcomeOf(ex);
+            throw ex;
+        } finally {
+            timers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordStatement(String format, long rows, long elapsedNanos) {
+        statementRows.get(format).record(rows);
+        statementRender.get(format).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Outcome outcomeOf(RuntimeException ex) {
+        if (ex instanceof InsufficientFundsException) {
+            return Outcome.INSUFFICIENT_FUNDS;
+        }
+        if (ex instanceof AccountNotFoundException) {
+            return Outcome.NOT_FOUND;
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return Outcome.INVALID;
+        }
+        return Outcome.ERROR;
+    }
+}
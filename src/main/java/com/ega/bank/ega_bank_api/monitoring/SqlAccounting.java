@@ -0,0 +1,85 @@
+package com.ega.bank.ega_bank_api.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request SQL counters: statements executed, rows read and time spent in JDBC calls.
+ * The counters of the current unit of work live in a thread local that
+ * {@link SqlAccountingFilter} opens per HTTP request; the JDBC proxies installed by
+ * {@link SqlAccountingDataSourcePostProcessor} add to it. Work outside any request is not counted.
+ */
+public final class SqlAccounting {
+
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    private SqlAccounting() {
+    }
+
+    /**
+     * Starts counting on this thread and returns the fresh counters.
+     */
+    public static Stats start() {
+        Stats stats = new Stats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Continues counting into {@code stats} on this thread, e.g. on the worker that writes a
+     * streamed response. {@code null} detaches.
+     */
+    public static void attach(Stats stats) {
+        if (stats == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(stats);
+        }
+    }
+
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    static void recordStatement(long nanos) {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements.incrementAndGet();
+            stats.jdbcNanos.addAndGet(nanos);
+        }
+    }
+
+    static void recordRow() {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.rows.incrementAndGet();
+        }
+    }
+
+    public static final class Stats {
+        // atomics: a streamed response may be counted from a second thread
+        private final AtomicLong statements = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong jdbcNanos = new AtomicLong();
+
+        public long getStatements() {
+            return statements.get();
+        }
+
+        public long getRows() {
+            return rows.get();
+        }
+
+        public long getJdbcMillis() {
+            return jdbcNanos.get() / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return getStatements() + " statements, " + getRows() + " rows, " + getJdbcMillis() + " ms in JDBC";
+        }
+    }
+}
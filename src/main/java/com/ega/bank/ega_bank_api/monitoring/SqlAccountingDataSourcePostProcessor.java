@@ -0,0 +1,114 @@
+package com.ega.bank.ega_bank_api.monitoring;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps every {@link DataSource} bean so that connections, statements and result sets report to
+ * {@link SqlAccounting}. A call to {@code execute*} counts as one statement (a JDBC batch is one
+ * round trip, hence one statement) and its duration as JDBC time; each {@code ResultSet.next()}
+ * that returns a row counts as one row read.
+ */
+@Component
+@ConditionalOnProperty(name = "sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof AccountingDataSource)) {
+            return new AccountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    static final class AccountingDataSource extends DelegatingDataSource {
+
+        AccountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return proxy(Connection.class, super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return proxy(Connection.class, super.getConnection(username, password));
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(SqlAccountingDataSourcePostProcessor.class.getClassLoader(),
+                new Class<?>[]{type}, new Accounting(target)));
+    }
+
+    private static final class Accounting implements InvocationHandler {
+
+        private final Object target;
+
+        private Accounting(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.equals("unwrap") && args != null && args[0] instanceof Class<?> type && type.isInstance(proxy)) {
+                return proxy;
+            }
+            boolean execute = target instanceof Statement && name.startsWith("execute");
+            long started = execute ? System.nanoTime() : 0L;
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            } finally {
+                if (execute) {
+                    SqlAccounting.recordStatement(System.nanoTime() - started);
+                }
+            }
+            if (target instanceof ResultSet && name.equals("next")) {
+                if (Boolean.TRUE.equals(result)) {
+                    SqlAccounting.recordRow();
+                }
+                return result;
+            }
+            // wrap what the statements hand back so that rows read through them are counted
+            if (result instanceof CallableStatement cs) {
+                return proxy(CallableStatement.class, cs);
+            }
+            if (result instanceof PreparedStatement ps) {
+                return proxy(PreparedStatement.class, ps);
+            }
+            if (result instanceof Statement st && !(target instanceof ResultSet)) {
+                return proxy(Statement.class, st);
+            }
+            if (result instanceof ResultSet rs && method.getReturnType() == ResultSet.class) {
+                return proxy(ResultSet.class, rs);
+            }
+            return result;
+        }
+    }
+}
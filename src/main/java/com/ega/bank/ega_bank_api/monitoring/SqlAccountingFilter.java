@@ -0,0 +1,94 @@
+package com.ega.bank.ega_bank_api.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link SqlAccounting} scope per HTTP request and, once the response is complete, warns
+ * when the request went over {@code sql.accounting.warn-statements}, {@code warn-rows} or
+ * {@code warn-time-ms}. Typical cause: lazy associations loaded one by one (N+1).
+ * <p>
+ * With {@code sql.accounting.headers=true} (dev profile, tests) the counts are also returned as
+ * {@code X-Sql-Statements}, {@code X-Sql-Rows} and {@code X-Sql-Time-Ms}. Headers have to precede
+ * the body, so in that mode responses are buffered until the request ends, including streamed
+ * statements; keep it off in production.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlAccountingFilter.class);
+    private static final String STATS_ATTRIBUTE = SqlAccountingFilter.class.getName() + ".stats";
+
+    @Value("${sql.accounting.warn-statements:20}")
+    private long warnStatements = 20;
+
+    @Value("${sql.accounting.warn-rows:5000}")
+    private long warnRows = 5000;
+
+    @Value("${sql.accounting.warn-time-ms:500}")
+    private long warnTimeMillis = 500;
+
+    @Value("${sql.accounting.headers:false}")
+    private boolean headers;
+
+    // the async dispatch that completes a streamed response is where its totals are known
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SqlAccounting.Stats stats = (SqlAccounting.Stats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) {
+            stats = SqlAccounting.start();
+            request.setAttribute(STATS_ATTRIBUTE, stats);
+        } else {
+            SqlAccounting.attach(stats);
+        }
+        HttpServletResponse target = response;
+        if (headers && WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) == null) {
+            target = new ContentCachingResponseWrapper(response);
+        }
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            SqlAccounting.clear();
+        }
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        report(request, stats);
+        ContentCachingResponseWrapper buffered = WebUtils.getNativeResponse(target, ContentCachingResponseWrapper.class);
+        if (buffered != null) {
+            buffered.setHeader("X-Sql-Statements", String.valueOf(stats.getStatements()));
+            buffered.setHeader("X-Sql-Rows", String.valueOf(stats.getRows()));
+            buffered.setHeader("X-Sql-Time-Ms", String.valueOf(stats.getJdbcMillis()));
+            buffered.copyBodyToResponse();
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlAccounting.Stats stats) {
+        if (stats.getStatements() > warnStatements || stats.getRows() > warnRows || stats.getJdbcMillis() > warnTimeMillis) {
+            log.warn("{} {}: {}", request.getMethod(), request.getRequestURI(), stats);
+        } else if (log.isDebugEnabled()) {
+            log.debug("{} {}: {}", request.getMethod(), request.getRequestURI(), stats);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ega.bank.ega_bank_api.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries the request's {@link SqlAccounting} counters onto the application task executor, which
+ * also runs the bodies of streamed responses (CSV/PDF statements).
+ */
+@Component
+@ConditionalOnProperty(name = "sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        SqlAccounting.Stats stats = SqlAccounting.current();
+        if (stats == null) {
+            return runnable;
+        }
+        return () -> {
+            SqlAccounting.attach(stats);
+            try {
+                runnable.run();
+            } finally {
+                SqlAccounting.clear();
+            }
+        };
+    }
+}
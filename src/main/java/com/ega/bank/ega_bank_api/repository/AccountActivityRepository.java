@@ -0,0 +1,98 @@
+package com.ega.bank.ega_bank_api.repository;
+
+import com.ega.bank.ega_bank_api.dto.ActivitySummary;
+import com.ega.bank.ega_bank_api.model.AccountActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AccountActivityRepository extends JpaRepository<AccountActivity, Long> {
+
+    // Upserts adding the deltas to the row, or creating it with them: one statement, locking only this
+    // row. Standard MERGE (H2 and most databases) and MySQL's equivalent; ActivityRollups picks one
+    @Modifying
+    @Query(value = "merge into account_activity a using (select cast(:accountId as bigint) as account_id, "
+            + "cast(:activityDate as date) as activity_date, cast(:slot as int) as slot) k "
+            + "on a.account_id = k.account_id and a.activity_date = k.activity_date and a.slot = k.slot "
+            + "when matched then update set "
+            + "deposit_count = a.deposit_count + :depositCount, deposit_minor = a.deposit_minor + :depositMinor, "
+            + "withdrawal_count = a.withdrawal_count + :withdrawalCount, withdrawal_minor = a.withdrawal_minor + :withdrawalMinor, "
+            + "transfer_in_count = a.transfer_in_count + :transferInCount, transfer_in_minor = a.transfer_in_minor + :transferInMinor, "
+            + "transfer_out_count = a.transfer_out_count + :transferOutCount, transfer_out_minor = a.transfer_out_minor + :transferOutMinor "
+            + "when not matched then insert (account_id, activity_date, slot, deposit_count, deposit_minor, withdrawal_count, "
+            + "withdrawal_minor, transfer_in_count, transfer_in_minor, transfer_out_count, transfer_out_minor) "
+            + "values (k.account_id, k.activity_date, k.slot, :depositCount, :depositMinor, :withdrawalCount, :withdrawalMinor, "
+            + ":transferInCount, :transferInMinor, :transferOutCount, :transferOutMinor)",
+            nativeQuery = true)
+    int merge(@Param("accountId") Long accountId, @Param("activityDate") LocalDate activityDate, @Param("slot") int slot,
+              @Param("depositCount") long depositCount, @Param("depositMinor") long depositMinor,
+              @Param("withdrawalCount") long withdrawalCount, @Param("withdrawalMinor") long withdrawalMinor,
+              @Param("transferInCount") long transferInCount, @Param("transferInMinor") long transferInMinor,
+              @Param("transferOutCount") long transferOutCount, @Param("transferOutMinor") long transferOutMinor);
+
+    @Modifying
+    @Query(value = "insert into account_activity (account_id, activity_date, slot, deposit_count, deposit_minor, withdrawal_count, "
+            + "withdrawal_minor, transfer_in_count, transfer_in_minor, transfer_out_count, transfer_out_minor) "
+            + "values (:accountId, :activityDate, :slot, :depositCount, :depositMinor, :withdrawalCount, :withdrawalMinor, "
+            + ":transferInCount, :transferInMinor, :transferOutCount, :transferOutMinor) "
+            + "on duplicate key update "
+            + "deposit_count = deposit_count + :depositCount, deposit_minor = deposit_minor + :depositMinor, "
+            + "withdrawal_count = withdrawal_count + :withdrawalCount, withdrawal_minor = withdrawal_minor + :withdrawalMinor, "
+            + "transfer_in_count = transfer_in_count + :transferInCount, transfer_in_minor = transfer_in_minor + :transferInMinor, "
+            + "transfer_out_count = transfer_out_count + :transferOutCount, transfer_out_minor = transfer_out_minor + :transferOutMinor",
+            nativeQuery = true)
+    int insertOrAdd(@Param("accountId") Long accountId, @Param("activityDate") LocalDate activityDate, @Param("slot") int slot,
+                    @Param("depositCount") long depositCount, @Param("depositMinor") long depositMinor,
+                    @Param("withdrawalCount") long withdrawalCount, @Param("withdrawalMinor") long withdrawalMinor,
+                    @Param("transferInCount") long transferInCount, @Param("transferInMinor") long transferInMinor,
+                    @Param("transferOutCount") long transferOutCount, @Param("transferOutMinor") long transferOutMinor);
+
+    @Query("select new com.ega.bank.ega_bank_api.dto.ActivitySummary(a.activityDate, "
+            + "sum(a.depositCount), sum(a.depositMinor), sum(a.withdrawalCount), sum(a.withdrawalMinor), "
+            + "sum(a.transferInCount), sum(a.transferInMinor), sum(a.transferOutCount), sum(a.transferOutMinor)) "
+            + "from AccountActivity a where a.accountId = :accountId and a.activityDate between :from and :to "
+            + "group by a.activityDate order by a.activityDate")
+    List<ActivitySummary> summarizeByDay(@Param("accountId") Long accountId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.ega.bank.ega_bank_api.dto.ActivitySummary(year(a.activityDate), month(a.activityDate), "
+            + "sum(a.depositCount), sum(a.depositMinor), sum(a.withdrawalCount), sum(a.withdrawalMinor), "
+            + "sum(a.transferInCount), sum(a.transferInMinor), sum(a.transferOutCount), sum(a.transferOutMinor)) "
+            + "from AccountActivity a where a.accountId = :accountId and a.activityDate between :from and :to "
+            + "group by year(a.activityDate), month(a.activityDate) order by year(a.activityDate), month(a.activityDate)")
+    List<ActivitySummary> summarizeByMonth(@Param("accountId") Long accountId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select min(a.activityDate) from AccountActivity a")
+    LocalDate findOldestActivityDate();
+
+    // Rebuild (see ActivityRollups#rebuild): one period's rollups are dropped, then recomputed from
+    // the transactions table with a single GROUP BY, credits and debits of each movement counted apart
+    @Modifying
+    @Query("delete from AccountActivity a where a.activityDate >= :from and a.activityDate < :to")
+    int deletePeriod(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "insert into account_activity (account_id, activity_date, slot, deposit_count, deposit_minor, withdrawal_count, "
+            + "withdrawal_minor, transfer_in_count, transfer_in_minor, transfer_out_count, transfer_out_minor) "
+            + "select m.account_id, m.activity_date, 0, sum(m.dc), sum(m.dm), sum(m.wc), sum(m.wm), sum(m.tic), sum(m.tim), sum(m.toc), sum(m.tom) "
+            + "from ("
+            + "select t.destination_account_id as account_id, cast(t.timestamp as date) as activity_date, "
+            + "case when t.type = 'DEPOSIT' then 1 else 0 end as dc, case when t.type = 'DEPOSIT' then t.amount else 0 end as dm, "
+            + "0 as wc, 0 as wm, "
+            + "case when t.type = 'TRANSFER' then 1 else 0 end as tic, case when t.type = 'TRANSFER' then t.amount else 0 end as tim, "
+            + "0 as toc, 0 as tom "
+            + "from transactions t where t.destination_account_id is not null and t.timestamp >= :from and t.timestamp < :to "
+            + "union all "
+            + "select t.source_account_id, cast(t.timestamp as date), 0, 0, "
+            + "case when t.type = 'WITHDRAWAL' then 1 else 0 end, case when t.type = 'WITHDRAWAL' then t.amount else 0 end, "
+            + "0, 0, "
+            + "case when t.type = 'TRANSFER' then 1 else 0 end, case when t.type = 'TRANSFER' then t.amount else 0 end "
+            + "from transactions t where t.source_account_id is not null and t.timestamp >= :from and t.timestamp < :to"
+            + ") m group by m.account_id, m.activity_date",
+            nativeQuery = true)
+    int rebuildFromTransactions(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
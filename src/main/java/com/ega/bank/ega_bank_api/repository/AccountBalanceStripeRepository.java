@@ -0,0 +1,29 @@
+package com.ega.bank.ega_bank_api.repository;
+
+import com.ega.bank.ega_bank_api.model.AccountBalanceStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AccountBalanceStripeRepository extends JpaRepository<AccountBalanceStripe, Long> {
+
+    // Locks only the chosen stripe row; returns 0 when the account has no such stripe (any more)
+    @Modifying
+    @Query(value = "update account_balance_stripes set balance = balance + :amount where account_id = :accountId and stripe = :stripe",
+            nativeQuery = true)
+    int credit(@Param("accountId") Long accountId, @Param("stripe") int stripe, @Param("amount") long amountMinor);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AccountBalanceStripe s where s.accountId = :accountId order by s.stripe")
+    List<AccountBalanceStripe> findByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    // flushes first so that stripes zeroed in this transaction are not updated after the delete
+    @Modifying(flushAutomatically = true)
+    @Query("delete from AccountBalanceStripe s where s.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
@@ -1,9 +1,53 @@
 package com.ega.bank.ega_bank_api.repository;
 
+import com.ega.bank.ega_bank_api.dto.AccountBalance;
 import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.Money;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountNumber(String accountNumber);
+
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    @Query("select a.balance from Account a where a.id = :id")
+    Money findBalanceById(@Param("id") Long id);
+
+    // the account row plus its stripes, for hot accounts; same as findBalanceById otherwise.
+    // Money columns hold minor units: arithmetic goes through cast(... as Long), not the converter
+    @Query("select cast(a.balance as Long) + coalesce((select sum(cast(s.balance as Long)) from AccountBalanceStripe s where s.accountId = a.id), 0L) "
+            + "from Account a where a.id = :id")
+    Long findTotalMinorById(@Param("id") Long id);
+
+    default Money findTotalBalanceById(Long id) {
+        Long minor = findTotalMinorById(id);
+        return minor != null ? Money.ofMinor(minor) : null;
+    }
+
+    // Row locks held until commit: concurrent movements on the same account run one after another
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.accountNumber in :accountNumbers order by a.id")
+    List<Account> findByAccountNumberInForUpdate(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    // Relative update used by the balance engine. The row is left alone (0 rows) when its lowest
+    // intermediate balance, balance + floor, would go negative, i.e. it moved outside the engine.
+    @Modifying
+    @Query(value = "update accounts set balance = balance + :delta where id = :id and balance + :floor >= 0", nativeQuery = true)
+    int applyDelta(@Param("id") Long id, @Param("delta") long deltaMinor, @Param("floor") long floorMinor);
+
+    @Query("select new com.ega.bank.ega_bank_api.dto.AccountBalance(a.id, a.balance, a.stripes) from Account a where a.id in :ids")
+    List<AccountBalance> findBalancesByIdIn(@Param("ids") Collection<Long> ids);
 }
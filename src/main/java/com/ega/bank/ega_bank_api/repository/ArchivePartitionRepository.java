@@ -0,0 +1,10 @@
+package com.ega.bank.ega_bank_api.repository;
+
+import com.ega.bank.ega_bank_api.model.ArchivePartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ArchivePartitionRepository extends JpaRepository<ArchivePartition, Long> {
+    List<ArchivePartition> findAllByOrderByPeriodStart();
+}
@@ -0,0 +1,13 @@
+package com.ega.bank.ega_bank_api.repository;
+
+import com.ega.bank.ega_bank_api.model.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+    Optional<BalanceCheckpoint> findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(Long accountId);
+
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndAsOfLessThanOrderByAsOfDescTransactionIdDesc(Long accountId, LocalDateTime before);
+}
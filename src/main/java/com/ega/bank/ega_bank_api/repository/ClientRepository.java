@@ -1,7 +1,31 @@
 package com.ega.bank.ega_bank_api.repository;
 
+import com.ega.bank.ega_bank_api.dto.ClientSummary;
 import com.ega.bank.ega_bank_api.model.Client;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
+
+    // Unpaged listing: accounts come in with the clients in one join
+    @Override
+    @EntityGraph(attributePaths = "accounts")
+    List<Client> findAll();
+
+    // Paged listing keeps the plain select (a collection fetch join would page in memory);
+    // accounts are then loaded through Client.accounts' @BatchSize
+    @Override
+    Page<Client> findAll(Pageable pageable);
+
+    @Query(value = "select new com.ega.bank.ega_bank_api.dto.ClientSummary(c.id, c.firstName, c.lastName, count(a), "
+            + "coalesce(sum(cast(a.balance as Long)), 0L) + coalesce((select sum(cast(s.balance as Long)) from AccountBalanceStripe s "
+            + "where s.accountId in (select a2.id from Account a2 where a2.owner = c)), 0L)) "
+            + "from Client c left join c.accounts a group by c.id, c.firstName, c.lastName, c.email, c.nationality",
+            countQuery = "select count(c) from Client c")
+    Page<ClientSummary> summarize(Pageable pageable);
 }
@@ -1,14 +1,106 @@
 package com.ega.bank.ega_bank_api.repository;
 
+import com.ega.bank.ega_bank_api.archive.ArchivedTransaction;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.model.Money;
 import com.ega.bank.ega_bank_api.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findBySourceAccountIdOrDestinationAccountIdAndTimestampBetween(Long srcId, Long destId, LocalDateTime start, LocalDateTime end);
+    // Explicit queries: the derived "...SourceAccountIdOrDestinationAccountIdAndTimestampBetween" form
+    // bound the period to the destination side only (AND binds tighter than OR)
+    @Query("select new com.ega.bank.ega_bank_api.dto.TransactionView(t.id, t.type, t.amount, t.timestamp, s.accountNumber, d.accountNumber, t.description) "
+            + "from Transaction t left join t.sourceAccount s left join t.destinationAccount d "
+            + "where (t.sourceAccount.id = :accountId or t.destinationAccount.id = :accountId) and t.timestamp between :start and :end")
+    List<TransactionView> findByAccountAndPeriod(@Param("accountId") Long accountId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query(value = "select new com.ega.bank.ega_bank_api.dto.TransactionView(t.id, t.type, t.amount, t.timestamp, s.accountNumber, d.accountNumber, t.description) "
+            + "from Transaction t left join t.sourceAccount s left join t.destinationAccount d "
+            + "where (t.sourceAccount.id = :accountId or t.destinationAccount.id = :accountId) and t.timestamp between :start and :end",
+            countQuery = "select count(t) from Transaction t "
+            + "where (t.sourceAccount.id = :accountId or t.destinationAccount.id = :accountId) and t.timestamp between :start and :end")
+    Page<TransactionView> findByAccountAndPeriod(@Param("accountId") Long accountId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end, Pageable pageable);
+
+    // Keyset (seek) pages, newest first. One query per side so each can walk its own
+    // (account_id, timestamp, id) index; the caller merges the two sorted slices.
+    @Query("select new com.ega.bank.ega_bank_api.dto.TransactionView(t.id, t.type, t.amount, t.timestamp, s.accountNumber, d.accountNumber, t.description) "
+            + "from Transaction t left join t.sourceAccount s left join t.destinationAccount d "
+            + "where t.sourceAccount.id = :accountId and t.timestamp >= :start "
+            + "and (t.timestamp < :beforeTs or (t.timestamp = :beforeTs and t.id < :beforeId)) "
+            + "order by t.timestamp desc, t.id desc")
+    List<TransactionView> findOutgoingBefore(@Param("accountId") Long accountId, @Param("start") LocalDateTime start,
+                                             @Param("beforeTs") LocalDateTime beforeTs, @Param("beforeId") Long beforeId, Pageable limit);
+
+    @Query("select new com.ega.bank.ega_bank_api.dto.TransactionView(t.id, t.type, t.amount, t.timestamp, s.accountNumber, d.accountNumber, t.description) "
+            + "from Transaction t left join t.sourceAccount s left join t.destinationAccount d "
+            + "where t.destinationAccount.id = :accountId and t.timestamp >= :start "
+            + "and (t.timestamp < :beforeTs or (t.timestamp = :beforeTs and t.id < :beforeId)) "
+            + "order by t.timestamp desc, t.id desc")
+    List<TransactionView> findIncomingBefore(@Param("accountId") Long accountId, @Param("start") LocalDateTime start,
+                                             @Param("beforeTs") LocalDateTime beforeTs, @Param("beforeId") Long beforeId, Pageable limit);
+
+    // Forward-only cursor over an account's movements, projected to flat rows so nothing
+    // accumulates in the persistence context. Must be consumed inside a transaction and closed.
+    // On MySQL add useCursorFetch=true to the JDBC URL so the fetch size is honoured.
+    @Query("select new com.ega.bank.ega_bank_api.dto.TransactionView(t.id, t.type, t.amount, t.timestamp, s.accountNumber, d.accountNumber, t.description) "
+            + "from Transaction t left join t.sourceAccount s left join t.destinationAccount d "
+            + "where (s.id = :accountId or d.id = :accountId) and t.timestamp between :start and :end "
+            + "order by t.timestamp, t.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<TransactionView> streamStatementLines(@Param("accountId") Long accountId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Net effect on the account of the movements after (afterTs, afterId) and strictly before :before:
+    // credits count positive, debits negative. Used to roll a balance checkpoint forward.
+    @Query("select coalesce(sum(case when t.destinationAccount.id = :accountId then cast(t.amount as Long) else -cast(t.amount as Long) end), 0L) "
+            + "from Transaction t "
+            + "where (t.sourceAccount.id = :accountId or t.destinationAccount.id = :accountId) "
+            + "and (t.timestamp > :afterTs or (t.timestamp = :afterTs and t.id > :afterId)) and t.timestamp < :before")
+    Long netMovementMinor(@Param("accountId") Long accountId, @Param("afterTs") LocalDateTime afterTs,
+                          @Param("afterId") Long afterId, @Param("before") LocalDateTime before);
+
+    default Money netMovement(Long accountId, LocalDateTime afterTs, Long afterId, LocalDateTime before) {
+        return Money.ofMinor(netMovementMinor(accountId, afterTs, afterId, before));
+    }
+
+    // Archiving (see TransactionArchiver): a month's movements in file order, the accounts they
+    // mention, and their removal once the archive file is written
+    @Query("select min(t.timestamp) from Transaction t")
+    LocalDateTime findOldestTimestamp();
+
+    @Query("select new com.ega.bank.ega_bank_api.archive.ArchivedTransaction(t.id, t.type, t.amount, t.timestamp, s.id, s.accountNumber, d.id, d.accountNumber, t.description) "
+            + "from Transaction t left join t.sourceAccount s left join t.destinationAccount d "
+            + "where t.timestamp >= :from and t.timestamp < :to "
+            + "order by t.timestamp, t.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ArchivedTransaction> streamForArchive(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select distinct t.sourceAccount.id from Transaction t where t.sourceAccount is not null and t.timestamp >= :from and t.timestamp < :to")
+    List<Long> findSourceAccountIds(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select distinct t.destinationAccount.id from Transaction t where t.destinationAccount is not null and t.timestamp >= :from and t.timestamp < :to")
+    List<Long> findDestinationAccountIds(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
-    Page<Transaction> findBySourceAccountIdOrDestinationAccountIdAndTimestampBetween(Long srcId, Long destId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @Modifying
+    @Query("delete from Transaction t where t.timestamp >= :from and t.timestamp < :to")
+    int deletePeriod(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -5,24 +5,42 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final JwtAuthenticationCache authenticationCache;
+    private final Timer parseTimer;
+    private final MeterRegistry meterRegistry;
 
-    public JwtAuthFilter(JwtUtil jwtUtil) {
+    public JwtAuthFilter(JwtUtil jwtUtil, JwtAuthenticationCache authenticationCache, MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
+        this.authenticationCache = authenticationCache;
+        this.meterRegistry = meterRegistry;
+        // cache hits are not timed: this is the cost of signature verification and claim parsing
+        this.parseTimer = Timer.builder("auth.jwt.parse")
+                .description("Time to verify and parse a bearer token")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
     }
 
     @Override
@@ -31,22 +49,23 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                Claims claims = jwtUtil.parseToken(token).getBody();
-                String username = claims.getSubject();
-                Object rolesObj = claims.get("roles");
-                List<String> roles = java.util.Collections.emptyList();
-                if (rolesObj instanceof java.util.List<?>) {
-                    roles = ((java.util.List<?>) rolesObj).stream().filter(r -> r != null).map(Object::toString).collect(java.util.stream.Collectors.toList());
+                Authentication auth = authenticationCache.get(token);
+                if (auth == null) {
+                    long started = System.nanoTime();
+                    Claims claims = jwtUtil.parseToken(token).getBody();
+                    parseTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    auth = toAuthentication(claims);
+                    authenticationCache.put(token, auth, claims.getExpiration());
                 }
-                var authorities = roles.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList());
-                var auth = new UsernamePasswordAuthenticationToken(username, null, authorities);
                 SecurityContextHolder.getContext().setAuthentication(auth);
             } catch (io.jsonwebtoken.JwtException ex) {
+                countFailure(ex);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.setContentType("application/json");
                 response.getWriter().write("{\"error\":\"Invalid or expired token\"}");
                 return;
             } catch (Exception ex) {
+                countFailure(ex);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.setContentType("application/json");
                 response.getWriter().write("{\"error\":\"Authentication failed\"}");
@@ -55,4 +74,34 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // auth.jwt.failures{reason}; the registry caches the counter, so the lookup is cheap
+    private void countFailure(Exception ex) {
+        String reason;
+        if (ex instanceof ExpiredJwtException) {
+            reason = "expired";
+        } else if (ex instanceof SecurityException) {
+            reason = "signature";
+        } else if (ex instanceof MalformedJwtException) {
+            reason = "malformed";
+        } else if (ex instanceof io.jsonwebtoken.JwtException) {
+            reason = "invalid";
+        } else {
+            reason = "error";
+        }
+        meterRegistry.counter("auth.jwt.failures", "reason", reason).increment();
+    }
+
+    private static Authentication toAuthentication(Claims claims) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        Object rolesObj = claims.get("roles");
+        if (rolesObj instanceof List<?> roles) {
+            for (Object r : roles) {
+                if (r != null) {
+                    authorities.add(new SimpleGrantedAuthority(r.toString()));
+                }
+            }
+        }
+        return new UsernamePasswordAuthenticationToken(claims.getSubject(), null, authorities);
+    }
 }
@@ -0,0 +1,96 @@
+package com.ega.bank.ega_bank_api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of verified tokens: SHA-256 of the raw token to the ready-made
+ * {@link Authentication}. Entries never outlive the token's own expiry (nor
+ * {@code jwt.auth-cache.max-ttl-ms}), so a cache hit is as good as a fresh verification.
+ * Raw tokens are never kept.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private final long maxTtlMillis;
+    // null when jwt.auth-cache.max-size is 0
+    private final Cache<String, Entry> entries;
+
+    public JwtAuthenticationCache(@Value("${jwt.auth-cache.max-size:10000}") long maxSize,
+                                  @Value("${jwt.auth-cache.max-ttl-ms:300000}") long maxTtlMillis) {
+        this.maxTtlMillis = maxTtlMillis;
+        this.entries = maxSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.expiresAt - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public Authentication get(String token) {
+        if (entries == null) {
+            return null;
+        }
+        Entry e = entries.getIfPresent(hash(token));
+        return e != null ? e.authentication : null;
+    }
+
+    public void put(String token, Authentication authentication, Date tokenExpiration) {
+        if (entries == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + maxTtlMillis;
+        if (tokenExpiration != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiration.getTime());
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        entries.put(hash(token), new Entry(authentication, expiresAt));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Entry {
+        private final Authentication authentication;
+        // epoch millis: the token's exp, or sooner
+        private final long expiresAt;
+
+        private Entry(Authentication authentication, long expiresAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
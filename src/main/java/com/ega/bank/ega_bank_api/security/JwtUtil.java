@@ -14,6 +14,7 @@ import java.security.Key;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +33,12 @@ public class JwtUtil {
     private Key key;
     // support multiple keys (rotation): first is used to sign, others accepted for parsing
     private Key[] acceptedKeys;
+    // parsers are immutable and thread-safe, so they are built once per key instead of per request
+    private JwtParser[] acceptedParsers;
+    // "kid" header -> key; lets parseToken go straight to the right key
+    private Map<String, Key> keysById;
+    private String signingKeyId;
+    private JwtParser keyIdParser;
 
     public JwtUtil(Environment env) {
         this.env = env;
@@ -77,10 +84,33 @@ public class JwtUtil {
             acceptedKeys = new Key[]{key};
             log.info("No jwt.secret or JWT_SECRET provided — generated ephemeral key for development/testing.");
         }
+        acceptedParsers = new JwtParser[acceptedKeys.length];
+        Map<String, Key> ids = new HashMap<>();
+        for (int i = 0; i < acceptedKeys.length; i++) {
+            acceptedParsers[i] = Jwts.parserBuilder().setSigningKey(acceptedKeys[i]).build();
+            ids.putIfAbsent(keyId(acceptedKeys[i]), acceptedKeys[i]);
+        }
+        keysById = Map.copyOf(ids);
+        signingKeyId = keyId(key);
+        keyIdParser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                String kid = header.getKeyId();
+                if (kid == null) {
+                    throw new MissingKeyIdException();
+                }
+                Key k = keysById.get(kid);
+                if (k == null) {
+                    throw new JwtException("Unknown signing key");
+                }
+                return k;
+            }
+        }).build();
     }
 
     public String generateToken(String username, List<String> roles) {
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKeyId)
                 .setSubject(username)
                 .addClaims(Map.of("roles", roles))
                 .setIssuedAt(new Date())
@@ -90,11 +120,15 @@ public class JwtUtil {
     }
 
     public Jws<Claims> parseToken(String token) {
-        // Try all accepted keys to support rotation: first successful parse is returned
+        try {
+            return keyIdParser.parseClaimsJws(token);
+        } catch (MissingKeyIdException ex) {
+            // token issued before key ids were added: try all accepted keys, first successful parse is returned
+        }
         JwtException lastEx = null;
-        for (Key k : acceptedKeys) {
+        for (JwtParser parser : acceptedParsers) {
             try {
-                return Jwts.parserBuilder().setSigningKey(k).build().parseClaimsJws(token);
+                return parser.parseClaimsJws(token);
             } catch (JwtException ex) {
                 lastEx = ex;
             }
@@ -102,4 +136,24 @@ public class JwtUtil {
         throw lastEx != null ? lastEx : new JwtException("Unable to parse token");
     }
 
+    // Key id derived from the key material (first 8 bytes of its SHA-256), stable across restarts
+    // and rotations and safe to expose in the token header
+    private static String keyId(Key key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            StringBuilder sb = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                sb.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class MissingKeyIdException extends JwtException {
+        private MissingKeyIdException() {
+            super("Token has no key id");
+        }
+    }
 }
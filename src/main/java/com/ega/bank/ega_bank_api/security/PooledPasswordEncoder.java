@@ -0,0 +1,34 @@
+package com.ega.bank.ega_bank_api.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs another encoder's hashing and verification on the {@link PasswordHashingExecutor}. Only
+ * that CPU-bound work takes a pool slot: the user lookup of a login stays on the request thread,
+ * so a slow database cannot fill the pool or inflate the hashing timer.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public PooledPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-process cache of accounts keyed by account number, bounded by size and time.
+ * <p>
+ * Entries are detached snapshots, never managed entities. {@link AccountService} invalidates
+ * them after each committed balance change. In {@link Mode#METADATA} mode only the
+ * immutable part (id, number, type, owner) is trusted from the cache and the balance is always
+ * re-read from the database. Hit, miss and eviction counts are published as {@code cache.*}
+ * meters tagged {@code cache=accounts}.
+ */
+@Component
+public class AccountCache {
+
+    public enum Mode {
+        FULL,
+        METADATA
+    }
+
+    private final AccountRepository accountRepository;
+    private final Cache<String, Account> cache;
+    private final Mode mode;
+
+    public AccountCache(AccountRepository accountRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${account.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${account.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                        @Value("${account.cache.mode:FULL}") Mode mode) {
+        this.accountRepository = accountRepository;
+        this.mode = mode;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "accounts");
+    }
+
+    /**
+     * Account for reads. In METADATA mode the returned copy carries a freshly read balance.
+     */
+    public Optional<Account> find(String accountNumber) {
+        Optional<Account> cached = findMetadata(accountNumber);
+        // a hot account's stripes change without touching its row, so its balance is never cached
+        if (cached.isEmpty() || (mode == Mode.FULL && cached.get().getStripes() == 0)) {
+            return cached;
+        }
+        Account copy = snapshot(cached.get());
+        copy.setBalance(accountRepository.findTotalBalanceById(copy.getId()));
+        return Optional.of(copy);
+    }
+
+    /**
+     * Account whose id, number, type and owner can be used; its balance may be stale.
+     */
+    public Optional<Account> findMetadata(String accountNumber) {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // may be reading a replica (see ReplicaRouter), which can lag behind: use but do not keep
+            Account cached = cache.getIfPresent(accountNumber);
+            return cached != null ? Optional.of(cached)
+                    : accountRepository.findByAccountNumber(accountNumber).map(AccountCache::snapshot);
+        }
+        // an eviction that arrives while the entry is loading waits for the load and then removes it,
+        // so a value read before a commit cannot outlive that commit's invalidation
+        return Optional.ofNullable(cache.get(accountNumber,
+                number -> accountRepository.findByAccountNumber(number).map(AccountCache::snapshot).orElse(null)));
+    }
+
+    public void evict(String accountNumber) {
+        cache.invalidate(accountNumber);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    private static Account snapshot(Account account) {
+        Account copy = new Account();
+        copy.setId(account.getId());
+        copy.setAccountNumber(account.getAccountNumber());
+        copy.setType(account.getType());
+        copy.setCreatedAt(account.getCreatedAt());
+        copy.setBalance(account.getBalance());
+        copy.setStripes(account.getStripes());
+        copy.setOwner(account.getOwner());
+        return copy;
+    }
+}
@@ -0,0 +1,161 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.model.AccountNumberBlock;
+import com.ega.bank.ega_bank_api.repository.AccountNumberBlockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Allocates unique French IBAN-style account numbers without probing the accounts table.
+ * <p>
+ * Sequence values are reserved from the database in blocks and handed out from memory with a
+ * single atomic increment; only the thread that exhausts a block takes the refill lock. Each value
+ * becomes the 11-digit account part of the BBAN (bank code, branch code, account, RIB key) and
+ * the ISO 13616 mod-97 check digits are computed arithmetically.
+ */
+@Component
+public class AccountNumberAllocator {
+
+    /**
+     * Reserves {@code size} consecutive sequence values and returns the first one.
+     */
+    @FunctionalInterface
+    public interface BlockReserver {
+        long reserve(int size);
+    }
+
+    static final String SEQUENCE_NAME = "account_number";
+    private static final long MAX_ACCOUNT = 99_999_999_999L;
+    // "FR00" moved to the end of the IBAN and converted to digits: F=15, R=27, check placeholder 00
+    private static final int[] COUNTRY_DIGITS = {1, 5, 2, 7, 0, 0};
+
+    private final BlockReserver reserver;
+    private final int blockSize;
+    private final long bankCode;
+    private final long branchCode;
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    @Autowired
+    public AccountNumberAllocator(AccountNumberBlockRepository blockRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${account.number.block-size:1000}") int blockSize,
+                                  @Value("${account.number.bank-code:30001}") String bankCode,
+                                  @Value("${account.number.branch-code:00001}") String branchCode) {
+        this(databaseReserver(blockRepository, transactionManager), blockSize, bankCode, branchCode);
+    }
+
+    public AccountNumberAllocator(BlockReserver reserver, int blockSize, String bankCode, String branchCode) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("account.number.block-size must be positive");
+        }
+        this.reserver = reserver;
+        this.blockSize = blockSize;
+        this.bankCode = parseCode(bankCode, "account.number.bank-code");
+        this.branchCode = parseCode(branchCode, "account.number.branch-code");
+    }
+
+    public String next() {
+        while (true) {
+            Block block = current.get();
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                return format(value);
+            }
+            refill(block);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // another thread may have refilled while we waited for the lock
+            if (current.get() == exhausted) {
+                long start = reserver.reserve(blockSize);
+                if (start + blockSize - 1 > MAX_ACCOUNT) {
+                    throw new IllegalStateException("Account number space exhausted");
+                }
+                current.set(new Block(start, start + blockSize));
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    String format(long account) {
+        char[] iban = new char[27];
+        iban[0] = 'F';
+        iban[1] = 'R';
+        writeDigits(iban, 4, 5, bankCode);
+        writeDigits(iban, 9, 5, branchCode);
+        writeDigits(iban, 14, 11, account);
+        // French RIB key over bank, branch and (numeric) account parts
+        long ribKey = 97 - ((89 * bankCode + 15 * branchCode + 3 * account) % 97);
+        writeDigits(iban, 25, 2, ribKey);
+
+        int remainder = 0;
+        for (int i = 4; i < 27; i++) {
+            remainder = (remainder * 10 + (iban[i] - '0')) % 97;
+        }
+        for (int digit : COUNTRY_DIGITS) {
+            remainder = (remainder * 10 + digit) % 97;
+        }
+        writeDigits(iban, 2, 2, 98 - remainder);
+        return new String(iban);
+    }
+
+    private static void writeDigits(char[] buf, int offset, int width, long value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buf[i] = (char) ('0' + (value % 10));
+            value /= 10;
+        }
+    }
+
+    private static long parseCode(String code, String property) {
+        if (code == null || !code.matches("\\d{5}")) {
+            throw new IllegalArgumentException(property + " must be exactly 5 digits");
+        }
+        return Long.parseLong(code);
+    }
+
+    private static BlockReserver databaseReserver(AccountNumberBlockRepository repository, PlatformTransactionManager transactionManager) {
+        // own short transaction so the row lock is released as soon as the block is reserved
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return size -> {
+            try {
+                return tx.execute(status -> reserve(repository, size));
+            } catch (DataIntegrityViolationException ex) {
+                // lost the race to create the sequence row; it exists now
+                return tx.execute(status -> reserve(repository, size));
+            }
+        };
+    }
+
+    private static long reserve(AccountNumberBlockRepository repository, int size) {
+        AccountNumberBlock row = repository.lockByName(SEQUENCE_NAME)
+                .orElseGet(() -> repository.saveAndFlush(new AccountNumberBlock(SEQUENCE_NAME, 1L)));
+        long start = row.getNextValue();
+        row.setNextValue(start + size);
+        return start;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -1,46 +1,93 @@
 package com.ega.bank.ega_bank_api.service;
 
+import com.ega.bank.ega_bank_api.dto.ActivitySummary;
+import com.ega.bank.ega_bank_api.dto.BatchTransferRequest;
+import com.ega.bank.ega_bank_api.dto.BatchTransferResponse;
+import com.ega.bank.ega_bank_api.dto.CursorPage;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.dto.TransferLegResult;
+import com.ega.bank.ega_bank_api.dto.TransferRequest;
 import com.ega.bank.ega_bank_api.model.*;
 import com.ega.bank.ega_bank_api.repository.*;
+import com.ega.bank.ega_bank_api.exception.AccountNotFoundException;
 import com.ega.bank.ega_bank_api.exception.InsufficientFundsException;
+import com.ega.bank.ega_bank_api.journal.JournalEntry;
+import com.ega.bank.ega_bank_api.journal.LedgerJournal;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import jakarta.transaction.Transactional;
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
-// iban4j removed for deterministic test-friendly generation
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class AccountService {
 
+    private static final Logger log = LoggerFactory.getLogger(AccountService.class);
+
     private final AccountRepository accountRepository;
     private final ClientRepository clientRepository;
     private final TransactionRepository transactionRepository;
+    private final TransactionHistory transactionHistory;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final AccountCache accountCache;
+    private final BalanceStripes balanceStripes;
+    private final ActivityRollups activityRollups;
+    // present only with journal.enabled=true
+    private final ObjectProvider<LedgerJournal> journal;
+
+    private static final Comparator<TransactionView> NEWEST_FIRST = Comparator.comparing(TransactionView::getTimestamp)
+            .thenComparing(TransactionView::getId).reversed();
 
     public Account createAccount(Long clientId, AccountType type) {
         Client client = clientRepository.findById(clientId).orElseThrow(() -> new IllegalArgumentException("Client not found"));
         Account account = new Account();
         account.setOwner(client);
         account.setType(type);
-        account.setBalance(BigDecimal.ZERO);
-        account.setAccountNumber(generateAccountNumber());
+        account.setBalance(Money.ZERO);
+        account.setAccountNumber(accountNumberAllocator.next());
         Account saved = accountRepository.save(account);
         return saved;
     }
 
     public Optional<Account> findByAccountNumber(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber);
+        return accountCache.find(accountNumber);
     }
 
     @Transactional
-    public Transaction deposit(String accountNumber, BigDecimal amount) {
-        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        account.setBalance(account.getBalance().add(amount));
+    public Transaction deposit(String accountNumber, Money amount) {
+        Account metadata = accountCache.findMetadata(accountNumber).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        int stripe = metadata.getStripes() > 0 ? balanceStripes.credit(metadata.getId(), metadata.getStripes(), amount) : -1;
+        if (stripe >= 0) {
+            // hot account: only the stripe row is locked, and the cached entry stays valid (its reads add the stripes)
+            Transaction tx = new Transaction();
+            tx.setType(TransactionType.DEPOSIT);
+            tx.setAmount(amount);
+            tx.setDestinationAccount(metadata);
+            tx.setTimestamp(LocalDateTime.now());
+            Transaction saved = transactionRepository.save(tx);
+            activityRollups.recordHotDeposit(saved, stripe);
+            afterCommit(List.of(), List.of(saved));
+            return saved;
+        }
+        Account account = lock(metadata.getId(), accountNumber, "Account not found");
+        account.setBalance(account.getBalance().plus(amount));
         accountRepository.save(account);
 
         Transaction tx = new Transaction();
@@ -48,16 +95,21 @@ public class AccountService {
         tx.setAmount(amount);
         tx.setDestinationAccount(account);
         tx.setTimestamp(LocalDateTime.now());
-        return transactionRepository.save(tx);
+        Transaction saved = transactionRepository.save(tx);
+        balanceCheckpointService.recordIfDue(account, saved);
+        activityRollups.record(List.of(saved));
+        afterCommit(List.of(account), List.of(saved));
+        return saved;
     }
 
     @Transactional
-    public Transaction withdraw(String accountNumber, BigDecimal amount) {
-        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        if (account.getBalance().compareTo(amount) < 0) {
+    public Transaction withdraw(String accountNumber, Money amount) {
+        Account account = lock(resolveId(accountNumber, "Account not found"), accountNumber, "Account not found");
+        balanceStripes.cover(account, amount);
+        if (account.getBalance().isLessThan(amount)) {
             throw new InsufficientFundsException("Insufficient funds");
         }
-        account.setBalance(account.getBalance().subtract(amount));
+        account.setBalance(account.getBalance().minus(amount));
         accountRepository.save(account);
 
         Transaction tx = new Transaction();
@@ -65,21 +117,36 @@ public class AccountService {
         tx.setAmount(amount);
         tx.setSourceAccount(account);
         tx.setTimestamp(LocalDateTime.now());
-        return transactionRepository.save(tx);
+        Transaction saved = transactionRepository.save(tx);
+        balanceCheckpointService.recordIfDue(account, saved);
+        activityRollups.record(List.of(saved));
+        afterCommit(List.of(account), List.of(saved));
+        return saved;
     }
 
     @Transactional
-    public Transaction transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+    public Transaction transfer(String fromAccountNumber, String toAccountNumber, Money amount) {
         if (fromAccountNumber.equals(toAccountNumber)) {
             throw new IllegalArgumentException("Source and destination must differ");
         }
-        Account src = accountRepository.findByAccountNumber(fromAccountNumber).orElseThrow(() -> new IllegalArgumentException("Source account not found"));
-        Account dst = accountRepository.findByAccountNumber(toAccountNumber).orElseThrow(() -> new IllegalArgumentException("Destination account not found"));
-        if (src.getBalance().compareTo(amount) < 0) {
+        Long srcId = resolveId(fromAccountNumber, "Source account not found");
+        Long dstId = resolveId(toAccountNumber, "Destination account not found");
+        // lock both rows in id order so that opposite transfers between the same pair cannot deadlock
+        Account src;
+        Account dst;
+        if (srcId < dstId) {
+            src = lock(srcId, fromAccountNumber, "Source account not found");
+            dst = lock(dstId, toAccountNumber, "Destination account not found");
+        } else {
+            dst = lock(dstId, toAccountNumber, "Destination account not found");
+            src = lock(srcId, fromAccountNumber, "Source account not found");
+        }
+        balanceStripes.cover(src, amount);
+        if (src.getBalance().isLessThan(amount)) {
             throw new InsufficientFundsException("Insufficient funds for transfer");
         }
-        src.setBalance(src.getBalance().subtract(amount));
-        dst.setBalance(dst.getBalance().add(amount));
+        src.setBalance(src.getBalance().minus(amount));
+        dst.setBalance(dst.getBalance().plus(amount));
         accountRepository.save(src);
         accountRepository.save(dst);
 
@@ -89,34 +156,225 @@ public class AccountService {
         tx.setSourceAccount(src);
         tx.setDestinationAccount(dst);
         tx.setTimestamp(LocalDateTime.now());
-        return transactionRepository.save(tx);
-    }
-
-    public List<Transaction> getTransactionsForPeriod(String accountNumber, LocalDateTime start, LocalDateTime end) {
-        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        return transactionRepository.findBySourceAccountIdOrDestinationAccountIdAndTimestampBetween(account.getId(), account.getId(), start, end);
-    }
-
-    public org.springframework.data.domain.Page<Transaction> getTransactionsForPeriod(String accountNumber, LocalDateTime start, LocalDateTime end, org.springframework.data.domain.Pageable pageable) {
-        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        return transactionRepository.findBySourceAccountIdOrDestinationAccountIdAndTimestampBetween(account.getId(), account.getId(), start, end, pageable);
-    }
-
-    // Generate a simple unique account identifier resembling an IBAN starting with FR
-    // This avoids depending on iban4j and keeps tests deterministic.
-    private String generateAccountNumber() {
-        Random rnd = new Random();
-        String candidate;
-        int attempts = 0;
-        do {
-            // FR + 2 digits (check) + 23 digits (BBAN-like) => 27 chars
-            String check = String.format("%02d", rnd.nextInt(100));
-            String bban = String.format("%023d", Math.abs(rnd.nextLong()) % 1000000000000000000L);
-            // ensure bban length exactly 23 by padding/trimming
-            if (bban.length() > 23) bban = bban.substring(0, 23);
-            candidate = "FR" + check + bban;
-            attempts++;
-        } while (accountRepository.findByAccountNumber(candidate).isPresent() && attempts < 20);
-        return candidate;
+        Transaction saved = transactionRepository.save(tx);
+        balanceCheckpointService.recordIfDue(src, saved);
+        balanceCheckpointService.recordIfDue(dst, saved);
+        activityRollups.record(List.of(saved));
+        afterCommit(List.of(src, dst), List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Applies many transfers in one database transaction. All accounts involved are loaded with a
+     * single query, legs are validated in order against running balances, and the resulting
+     * transactions are persisted with pooled sequence ids so Hibernate can batch the inserts and
+     * the account updates. In {@link BatchTransferRequest.Mode#ALL_OR_NOTHING} mode nothing is
+     * written if any leg fails.
+     */
+    @Transactional
+    public BatchTransferResponse transferBatch(List<TransferRequest> legs, BatchTransferRequest.Mode mode) {
+        Set<String> numbers = new HashSet<>();
+        for (TransferRequest leg : legs) {
+            numbers.add(leg.getFromAccount());
+            numbers.add(leg.getToAccount());
+        }
+        Map<String, Account> accounts = new HashMap<>();
+        for (Account a : accountRepository.findByAccountNumberInForUpdate(numbers)) {
+            if (a.getStripes() > 0) {
+                balanceStripes.consolidate(a);
+            }
+            accounts.put(a.getAccountNumber(), a);
+        }
+
+        // validate every leg against running balances before touching any entity
+        Map<String, Money> balances = new HashMap<>();
+        accounts.forEach((number, a) -> balances.put(number, a.getBalance()));
+        List<TransferLegResult> results = new ArrayList<>(legs.size());
+        int failed = 0;
+        for (int i = 0; i < legs.size(); i++) {
+            TransferRequest leg = legs.get(i);
+            String error = checkLeg(leg, accounts, balances);
+            if (error != null) {
+                failed++;
+                results.add(new TransferLegResult(i, TransferLegResult.Status.FAILED, null, error));
+                continue;
+            }
+            balances.put(leg.getFromAccount(), balances.get(leg.getFromAccount()).minus(leg.getAmount()));
+            balances.put(leg.getToAccount(), balances.get(leg.getToAccount()).plus(leg.getAmount()));
+            results.add(new TransferLegResult(i, TransferLegResult.Status.APPLIED, null, null));
+        }
+        if (failed > 0 && mode == BatchTransferRequest.Mode.ALL_OR_NOTHING) {
+            for (TransferLegResult r : results) {
+                if (r.getStatus() == TransferLegResult.Status.APPLIED) {
+                    r.setStatus(TransferLegResult.Status.NOT_APPLIED);
+                }
+            }
+            return new BatchTransferResponse(mode, 0, failed, results);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> movements = new ArrayList<>(legs.size() - failed);
+        for (TransferLegResult r : results) {
+            if (r.getStatus() != TransferLegResult.Status.APPLIED) {
+                continue;
+            }
+            TransferRequest leg = legs.get(r.getIndex());
+            Account src = accounts.get(leg.getFromAccount());
+            Account dst = accounts.get(leg.getToAccount());
+            src.setBalance(src.getBalance().minus(leg.getAmount()));
+            dst.setBalance(dst.getBalance().plus(leg.getAmount()));
+
+            Transaction tx = new Transaction();
+            tx.setType(TransactionType.TRANSFER);
+            tx.setAmount(leg.getAmount());
+            tx.setSourceAccount(src);
+            tx.setDestinationAccount(dst);
+            tx.setTimestamp(now);
+            // persist only assigns the id; the INSERTs (and the dirty account UPDATEs) go out in JDBC batches at flush
+            Transaction saved = transactionRepository.save(tx);
+            r.setTransactionId(saved.getId());
+            movements.add(saved);
+            balanceCheckpointService.recordIfDue(src, saved);
+            balanceCheckpointService.recordIfDue(dst, saved);
+        }
+        if (!movements.isEmpty()) {
+            activityRollups.record(movements);
+        }
+        afterCommit(accounts.values(), movements);
+        return new BatchTransferResponse(mode, legs.size() - failed, failed, results);
+    }
+
+    private static String checkLeg(TransferRequest leg, Map<String, Account> accounts, Map<String, Money> balances) {
+        if (leg.getFromAccount().equals(leg.getToAccount())) {
+            return "Source and destination must differ";
+        }
+        if (!accounts.containsKey(leg.getFromAccount())) {
+            return "Source account not found";
+        }
+        if (!accounts.containsKey(leg.getToAccount())) {
+            return "Destination account not found";
+        }
+        if (balances.get(leg.getFromAccount()).isLessThan(leg.getAmount())) {
+            return "Insufficient funds for transfer";
+        }
+        return null;
+    }
+
+    /**
+     * Balance of the account after every movement at or before {@code asOf}, computed from the
+     * nearest balance checkpoint rather than by replaying the whole history.
+     */
+    public Money getBalanceAsOf(String accountNumber, LocalDateTime asOf) {
+        Account account = accountCache.findMetadata(accountNumber).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        return balanceCheckpointService.balanceAsOf(account.getId(), asOf);
+    }
+
+    /**
+     * Deposits, withdrawals and transfers of the account per day or per month of {@code from..to},
+     * read from the activity rollups.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public List<ActivitySummary> getActivitySummary(String accountNumber, ActivitySummary.Granularity granularity, LocalDate from, LocalDate to) {
+        Account account = accountCache.findMetadata(accountNumber).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        return activityRollups.summarize(account.getId(), granularity, from, to);
+    }
+
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public List<TransactionView> getTransactionsForPeriod(String accountNumber, LocalDateTime start, LocalDateTime end) {
+        Account account = accountCache.findMetadata(accountNumber).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        return transactionHistory.findByAccountAndPeriod(account.getId(), start, end);
+    }
+
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public org.springframework.data.domain.Page<TransactionView> getTransactionsForPeriod(String accountNumber, LocalDateTime start, LocalDateTime end, org.springframework.data.domain.Pageable pageable) {
+        Account account = accountCache.findMetadata(accountNumber).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        return transactionHistory.findByAccountAndPeriod(account.getId(), start, end, pageable);
+    }
+
+    /**
+     * Keyset page of the account's movements, newest first. {@code cursor} is the token returned
+     * with the previous page (null for the first page); the cost of a page does not depend on its depth.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public CursorPage<TransactionView> getTransactionsBefore(String accountNumber, LocalDateTime start, LocalDateTime end, String cursor, int size) {
+        Account account = accountCache.findMetadata(accountNumber).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        TransactionCursor position = cursor != null && !cursor.isBlank() ? TransactionCursor.decode(cursor) : new TransactionCursor(end, Long.MAX_VALUE);
+        // one extra row per side tells us whether another page exists
+        org.springframework.data.domain.Pageable limit = org.springframework.data.domain.PageRequest.of(0, size + 1);
+        List<TransactionView> outgoing = transactionRepository.findOutgoingBefore(account.getId(), start, position.getTimestamp(), position.getId(), limit);
+        List<TransactionView> incoming = transactionRepository.findIncomingBefore(account.getId(), start, position.getTimestamp(), position.getId(), limit);
+
+        List<TransactionView> page = new ArrayList<>(Math.min(size, outgoing.size() + incoming.size()));
+        int o = 0, i = 0;
+        while (page.size() < size && (o < outgoing.size() || i < incoming.size())) {
+            if (i >= incoming.size() || (o < outgoing.size() && NEWEST_FIRST.compare(outgoing.get(o), incoming.get(i)) <= 0)) {
+                page.add(outgoing.get(o++));
+            } else {
+                page.add(incoming.get(i++));
+            }
+        }
+        boolean more = o < outgoing.size() || i < incoming.size();
+        if (!more) {
+            // the table has nothing older: continue into the archived months, which all come before it
+            List<TransactionView> archived = transactionHistory.findArchivedBefore(account.getId(), start, position.getTimestamp(), position.getId(), size - page.size() + 1);
+            for (TransactionView tx : archived) {
+                if (page.size() == size) {
+                    more = true;
+                    break;
+                }
+                page.add(tx);
+            }
+        }
+        String next = null;
+        if (more && !page.isEmpty()) {
+            TransactionView last = page.get(page.size() - 1);
+            next = new TransactionCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new CursorPage<>(page, next);
+    }
+
+    private Long resolveId(String accountNumber, String notFoundMessage) {
+        return accountCache.findMetadata(accountNumber).map(Account::getId).orElseThrow(() -> new AccountNotFoundException(notFoundMessage));
+    }
+
+    // Managed entity with its row locked until the transaction ends; the balance read here is current
+    private Account lock(Long id, String accountNumber, String notFoundMessage) {
+        return accountRepository.findByIdForUpdate(id).orElseThrow(() -> {
+            accountCache.evict(accountNumber);
+            return new AccountNotFoundException(notFoundMessage);
+        });
+    }
+
+    // Invalidates once the balance change is committed; the next read reloads the committed row.
+    // Writing the new state through instead could race: two commits' callbacks may run in either order.
+    // Committed movements then go to the journal, if enabled; the entries are built now, while the entities are managed.
+    private void afterCommit(Collection<Account> accounts, List<Transaction> movements) {
+        List<JournalEntry> entries = journal.getIfAvailable() != null
+                ? movements.stream().map(JournalEntry::of).toList()
+                : List.of();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accounts.forEach(a -> accountCache.evict(a.getAccountNumber()));
+            appendToJournal(entries);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accounts.forEach(a -> accountCache.evict(a.getAccountNumber()));
+                appendToJournal(entries);
+            }
+        });
+    }
+
+    private void appendToJournal(List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            journal.getObject().append(entries);
+        } catch (RuntimeException ex) {
+            // already committed: the transactions table remains complete, the journal has a gap
+            log.error("Journal append failed for transactions {}", entries.stream().map(JournalEntry::getTransactionId).toList(), ex);
+        }
     }
 }
@@ -0,0 +1,288 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.archive.ArchivedTransaction;
+import com.ega.bank.ega_bank_api.archive.TransactionArchive;
+import com.ega.bank.ega_bank_api.dto.ActivitySummary;
+import com.ega.bank.ega_bank_api.model.AccountActivity;
+import com.ega.bank.ega_bank_api.model.ArchivePartition;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import com.ega.bank.ega_bank_api.repository.AccountActivityRepository;
+import com.ega.bank.ega_bank_api.repository.ArchivePartitionRepository;
+import com.ega.bank.ega_bank_api.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Per-account, per-day totals of deposits, withdrawals and transfers ({@code account_activity}),
+ * so that a summary over months is a GROUP BY over a few rows per day instead of a scan of the
+ * movements.
+ * <p>
+ * The money-moving paths call {@link #record} in their own transaction, after saving the
+ * movements: each (account, day, slot) touched gets one upsert adding the deltas, in key order.
+ * Every row is only ever written under a lock the caller already holds, so two transactions never
+ * race to create the same one: slot 0 under the account row, slot {@code s + 1} under the hot
+ * account's balance stripe {@code s}.
+ * <p>
+ * {@link #rebuild()} recomputes everything from the movements, month by month in parallel, archived
+ * months included. It is meant to run with no traffic ({@code activity.rebuild-on-startup=true}
+ * runs it before the application accepts requests): movements recorded meanwhile in the month being
+ * rebuilt could be counted twice or not at all.
+ */
+@Service
+public class ActivityRollups implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityRollups.class);
+
+    // positions in the delta arrays: count, then minor units, per kind, in the table's column order
+    private static final int DEPOSIT = 0;
+    private static final int WITHDRAWAL = 2;
+    private static final int TRANSFER_IN = 4;
+    private static final int TRANSFER_OUT = 6;
+
+    private final AccountActivityRepository activityRepository;
+    private final TransactionRepository transactionRepository;
+    private final ArchivePartitionRepository partitionRepository;
+    private final TransactionArchive archive;
+    private final TransactionTemplate transactionTemplate;
+    // MySQL has no MERGE: insert ... on duplicate key update there
+    private final boolean mysql;
+    private final boolean rebuildOnStartup;
+    private final int rebuildThreads;
+
+    public ActivityRollups(AccountActivityRepository activityRepository,
+                           TransactionRepository transactionRepository,
+                           ArchivePartitionRepository partitionRepository,
+                           TransactionArchive archive,
+                           PlatformTransactionManager transactionManager,
+                           DataSource dataSource,
+                           @Value("${activity.rebuild-on-startup:false}") boolean rebuildOnStartup,
+                           @Value("${activity.rebuild.threads:4}") int rebuildThreads) throws MetaDataAccessException {
+        if (rebuildThreads <= 0) {
+            throw new IllegalArgumentException("activity.rebuild.threads must be positive");
+        }
+        this.activityRepository = activityRepository;
+        this.transactionRepository = transactionRepository;
+        this.partitionRepository = partitionRepository;
+        this.archive = archive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.mysql = product.contains("MySQL") || product.contains("MariaDB");
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.rebuildThreads = rebuildThreads;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Adds saved movements to their accounts' rollups. Runs in the caller's transaction.
+     */
+    public void record(List<Transaction> movements) {
+        Map<Key, long[]> deltas = new TreeMap<>();
+        for (Transaction tx : movements) {
+            LocalDate day = tx.getTimestamp().toLocalDate();
+            long minor = tx.getAmount().getMinor();
+            if (tx.getSourceAccount() != null) {
+                debit(deltas, new Key(tx.getSourceAccount().getId(), day, 0), tx.getType(), minor);
+            }
+            if (tx.getDestinationAccount() != null) {
+                credit(deltas, new Key(tx.getDestinationAccount().getId(), day, 0), tx.getType(), minor);
+            }
+        }
+        deltas.forEach(this::apply);
+    }
+
+    /**
+     * Deposit credited to balance stripe {@code stripe} of a hot account, which the caller's
+     * transaction holds locked: counted on that stripe's row of the day, so that concurrent deposits
+     * do not all wait on the same row.
+     */
+    public void recordHotDeposit(Transaction deposit, int stripe) {
+        Key key = new Key(deposit.getDestinationAccount().getId(), deposit.getTimestamp().toLocalDate(), stripe + 1);
+        long[] delta = new long[8];
+        add(delta, DEPOSIT, deposit.getAmount().getMinor());
+        apply(key, delta);
+    }
+
+    /**
+     * One entry per day or per calendar month of {@code from..to} with movements, oldest first. By
+     * month, the months containing {@code from} and {@code to} are counted whole.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public List<ActivitySummary> summarize(Long accountId, ActivitySummary.Granularity granularity, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("end must not be before start");
+        }
+        if (granularity == ActivitySummary.Granularity.DAY) {
+            return activityRepository.summarizeByDay(accountId, from, to);
+        }
+        return activityRepository.summarizeByMonth(accountId, from.withDayOfMonth(1), YearMonth.from(to).atEndOfMonth());
+    }
+
+    /**
+     * Drops and recomputes the rollups of every month from the oldest movement, archived or not, to
+     * the current one, {@code activity.rebuild.threads} months at a time, each month in its own
+     * transaction. Returns the number of months rebuilt.
+     */
+    public synchronized int rebuild() {
+        long started = System.nanoTime();
+        TreeMap<LocalDate, ArchivePartition> archived = new TreeMap<>();
+        for (ArchivePartition partition : partitionRepository.findAllByOrderByPeriodStart()) {
+            archived.put(partition.getPeriodStart(), partition);
+        }
+        LocalDate oldest = oldest(oldest(activityRepository.findOldestActivityDate(), archived.isEmpty() ? null : archived.firstKey()),
+                Objects.requireNonNullElse(transactionRepository.findOldestTimestamp(), LocalDateTime.now()).toLocalDate());
+        List<LocalDate> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(oldest); !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            months.add(month.atDay(1));
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("activity-rebuild-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(rebuildThreads, months.size()), threadFactory);
+        try {
+            List<Future<?>> pending = new ArrayList<>(months.size());
+            for (LocalDate month : months) {
+                pending.add(executor.submit(() -> rebuildMonth(month, archived.get(month))));
+            }
+            for (Future<?> f : pending) {
+                f.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Activity rebuild interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Activity rebuild failed", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Rebuilt account activity of {} months in {} ms", months.size(), (System.nanoTime() - started) / 1_000_000);
+        return months.size();
+    }
+
+    private void rebuildMonth(LocalDate month, ArchivePartition partition) {
+        transactionTemplate.executeWithoutResult(status -> {
+            activityRepository.deletePeriod(month, month.plusMonths(1));
+            if (partition == null) {
+                activityRepository.rebuildFromTransactions(month.atStartOfDay(), month.plusMonths(1).atStartOfDay());
+                return;
+            }
+            // archived: the table has none of the month's rows, the file has all of them
+            Map<Key, long[]> deltas = new TreeMap<>();
+            try (Stream<ArchivedTransaction> rows = archive.stream(partition)) {
+                rows.forEach(tx -> {
+                    LocalDate day = tx.getTimestamp().toLocalDate();
+                    if (tx.getSourceAccountId() != null) {
+                        debit(deltas, new Key(tx.getSourceAccountId(), day, 0), tx.getType(), tx.getAmount().getMinor());
+                    }
+                    if (tx.getDestinationAccountId() != null) {
+                        credit(deltas, new Key(tx.getDestinationAccountId(), day, 0), tx.getType(), tx.getAmount().getMinor());
+                    }
+                });
+            }
+            List<AccountActivity> rows = new ArrayList<>(deltas.size());
+            deltas.forEach((key, d) -> rows.add(new AccountActivity(null, key.accountId, key.day, key.slot,
+                    d[0], d[1], d[2], d[3], d[4], d[5], d[6], d[7])));
+            activityRepository.saveAll(rows);
+        });
+    }
+
+    // Same classification as AccountActivityRepository#rebuildFromTransactions
+    private static void debit(Map<Key, long[]> deltas, Key key, TransactionType type, long minor) {
+        if (type == TransactionType.WITHDRAWAL) {
+            add(deltas.computeIfAbsent(key, k -> new long[8]), WITHDRAWAL, minor);
+        } else if (type == TransactionType.TRANSFER) {
+            add(deltas.computeIfAbsent(key, k -> new long[8]), TRANSFER_OUT, minor);
+        }
+    }
+
+    private static void credit(Map<Key, long[]> deltas, Key key, TransactionType type, long minor) {
+        if (type == TransactionType.DEPOSIT) {
+            add(deltas.computeIfAbsent(key, k -> new long[8]), DEPOSIT, minor);
+        } else if (type == TransactionType.TRANSFER) {
+            add(deltas.computeIfAbsent(key, k -> new long[8]), TRANSFER_IN, minor);
+        }
+    }
+
+    private static void add(long[] delta, int kind, long minor) {
+        delta[kind]++;
+        delta[kind + 1] = Math.addExact(delta[kind + 1], minor);
+    }
+
+    private void apply(Key key, long[] d) {
+        if (mysql) {
+            activityRepository.insertOrAdd(key.accountId, key.day, key.slot, d[0], d[1], d[2], d[3], d[4], d[5], d[6], d[7]);
+        } else {
+            activityRepository.merge(key.accountId, key.day, key.slot, d[0], d[1], d[2], d[3], d[4], d[5], d[6], d[7]);
+        }
+    }
+
+    private static LocalDate oldest(LocalDate a, LocalDate b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * One rollup row. Ordered so that a transaction updates its rows in the same order as any other.
+     */
+    private static final class Key implements Comparable<Key> {
+        private final Long accountId;
+        private final LocalDate day;
+        private final int slot;
+
+        private Key(Long accountId, LocalDate day, int slot) {
+            this.accountId = accountId;
+            this.day = day;
+            this.slot = slot;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int c = accountId.compareTo(other.accountId);
+            if (c == 0) {
+                c = day.compareTo(other.day);
+            }
+            return c != 0 ? c : Integer.compare(slot, other.slot);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && accountId.equals(k.accountId) && day.equals(k.day) && slot == k.slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, day, slot);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.BalanceCheckpoint;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.repository.BalanceCheckpointRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes periodic per-account balance checkpoints and answers "balance as of" questions from the
+ * nearest checkpoint plus a delta scan bounded by the checkpoint interval.
+ * <p>
+ * A checkpoint is written for the first movement of each day and then every
+ * {@code balance.checkpoint.every-transactions} movements. Missing or extra checkpoints never
+ * affect correctness, only how far the delta scan has to go.
+ */
+@Service
+public class BalanceCheckpointService {
+
+    // lower bound for accounts that have no checkpoint yet: their history is replayed from zero
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final TransactionHistory transactionHistory;
+    private final Map<Long, CheckpointState> states = new ConcurrentHashMap<>();
+
+    @Value("${balance.checkpoint.every-transactions:100}")
+    private int everyTransactions = 100;
+
+    public BalanceCheckpointService(BalanceCheckpointRepository checkpointRepository, TransactionHistory transactionHistory) {
+        this.checkpointRepository = checkpointRepository;
+        this.transactionHistory = transactionHistory;
+    }
+
+    /**
+     * Called from the money-moving paths once {@code tx} is saved and {@code account} holds the
+     * resulting balance. Runs in the caller's transaction.
+     */
+    public void recordIfDue(Account account, Transaction tx) {
+        if (account.getStripes() > 0) {
+            // the row alone is not the balance of a hot account (see BalanceStripes)
+            return;
+        }
+        recordIfDue(account.getId(), account.getBalance(), tx);
+    }
+
+    /**
+     * Same as {@link #recordIfDue(Account, Transaction)} for callers that update balances with
+     * relative statements and only know the resulting balance.
+     */
+    public void recordIfDue(Long accountId, Money balanceAfter, Transaction tx) {
+        CheckpointState state = states.get(accountId);
+        if (state == null) {
+            state = states.computeIfAbsent(accountId, this::loadState);
+        }
+        LocalDate day = tx.getTimestamp().toLocalDate();
+        boolean due = !day.equals(state.day) || state.sinceLast.incrementAndGet() >= everyTransactions;
+        if (due) {
+            state.day = day;
+            state.sinceLast.set(0);
+            checkpointRepository.save(new BalanceCheckpoint(null, accountId, tx.getId(), tx.getTimestamp(), balanceAfter));
+        }
+    }
+
+    /**
+     * Balance after every movement strictly before {@code before}.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public Money balanceBefore(Long accountId, LocalDateTime before) {
+        Optional<BalanceCheckpoint> checkpoint = checkpointRepository.findFirstByAccountIdAndAsOfLessThanOrderByAsOfDescTransactionIdDesc(accountId, before);
+        LocalDateTime afterTs = checkpoint.map(BalanceCheckpoint::getAsOf).orElse(EPOCH);
+        Long afterId = checkpoint.map(BalanceCheckpoint::getTransactionId).orElse(0L);
+        Money base = checkpoint.map(BalanceCheckpoint::getBalance).orElse(Money.ZERO);
+        return base.plus(transactionHistory.netMovement(accountId, afterTs, afterId, before));
+    }
+
+    /**
+     * Balance including every movement at or before {@code asOf}.
+     */
+    public Money balanceAsOf(Long accountId, LocalDateTime asOf) {
+        // timestamps are stored with microsecond precision
+        return balanceBefore(accountId, asOf.plusNanos(1_000));
+    }
+
+    private CheckpointState loadState(Long accountId) {
+        CheckpointState state = new CheckpointState();
+        checkpointRepository.findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(accountId)
+                .ifPresent(cp -> state.day = cp.getAsOf().toLocalDate());
+        return state;
+    }
+
+    private static final class CheckpointState {
+        private volatile LocalDate day;
+        private final AtomicInteger sinceLast = new AtomicInteger();
+    }
+}
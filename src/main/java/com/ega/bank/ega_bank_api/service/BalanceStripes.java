@@ -0,0 +1,120 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.exception.AccountNotFoundException;
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.AccountBalanceStripe;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.repository.AccountBalanceStripeRepository;
+import com.ega.bank.ega_bank_api.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.transaction.Transactional;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hot account mode. A hot account's deposits go to one of its {@link AccountBalanceStripe}s,
+ * picked at random per request, so they do not all queue on the account row. Debits still lock the
+ * account row; when its own balance does not cover the amount, the stripes are locked and folded
+ * into it first. Balance checkpoints are not written for hot accounts, since stripe deposits are not
+ * ordered by any lock; "balance as of" then replays movements from the last earlier checkpoint.
+ */
+@Service
+public class BalanceStripes {
+
+    private final AccountRepository accountRepository;
+    private final AccountBalanceStripeRepository stripeRepository;
+    private final AccountCache accountCache;
+    private final int maxStripes;
+
+    public BalanceStripes(AccountRepository accountRepository,
+                          AccountBalanceStripeRepository stripeRepository,
+                          AccountCache accountCache,
+                          @Value("${account.stripes.max:64}") int maxStripes) {
+        this.accountRepository = accountRepository;
+        this.stripeRepository = stripeRepository;
+        this.accountCache = accountCache;
+        this.maxStripes = maxStripes;
+    }
+
+    /**
+     * Spreads the account's future deposits over {@code count} stripes; 0 turns hot mode off.
+     * The current stripes are folded back into the account first, so the balance is unchanged.
+     */
+    @Transactional
+    public Account configure(String accountNumber, int count) {
+        if (count < 0 || count > maxStripes) {
+            throw new IllegalArgumentException("Stripe count must be between 0 and " + maxStripes);
+        }
+        Long id = accountCache.findMetadata(accountNumber).map(Account::getId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        Account account = accountRepository.findByIdForUpdate(id).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        consolidate(account);
+        stripeRepository.deleteByAccountId(id);
+        for (int i = 0; i < count; i++) {
+            stripeRepository.save(new AccountBalanceStripe(null, id, i, Money.ZERO));
+        }
+        account.setStripes(count);
+        accountRepository.save(account);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accountCache.evict(accountNumber);
+            }
+        });
+        return account;
+    }
+
+    /**
+     * Adds {@code amount} to a random one of the account's {@code stripes} stripes and returns its
+     * index, whose row stays locked until the caller's transaction ends. -1 when that stripe no
+     * longer exists (hot mode was turned off or shrunk): credit the account row instead.
+     */
+    public int credit(Long accountId, int stripes, Money amount) {
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        return stripeRepository.credit(accountId, stripe, amount.getMinor()) == 1 ? stripe : -1;
+    }
+
+    /**
+     * Makes sure the locked account's own balance covers {@code amount} if its stripes together can.
+     */
+    public void cover(Account locked, Money amount) {
+        if (locked.getStripes() > 0 && locked.getBalance().isLessThan(amount)) {
+            consolidate(locked);
+        }
+    }
+
+    /**
+     * Moves every stripe's balance into the account, which the caller has locked and which must be
+     * a managed entity; the changes are flushed with the caller's transaction.
+     */
+    public void consolidate(Account locked) {
+        if (locked.getStripes() == 0) {
+            return;
+        }
+        List<AccountBalanceStripe> stripes = stripeRepository.findByAccountIdForUpdate(locked.getId());
+        Money total = Money.ZERO;
+        for (AccountBalanceStripe s : stripes) {
+            if (s.getBalance().signum() != 0) {
+                total = total.plus(s.getBalance());
+                s.setBalance(Money.ZERO);
+            }
+        }
+        locked.setBalance(locked.getBalance().plus(total));
+    }
+
+    /**
+     * Folds the stripes into the account row in a transaction of its own and returns the row's
+     * balance afterwards. Used by the balance engine, which holds no managed entities. Locks the row,
+     * then the stripes, in the same order as the debit paths.
+     */
+    @Transactional
+    public Money consolidateById(Long accountId) {
+        Account account = accountRepository.findByIdForUpdate(accountId).orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        consolidate(account);
+        return account.getBalance();
+    }
+}
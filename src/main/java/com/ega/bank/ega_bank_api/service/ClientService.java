@@ -1,9 +1,15 @@
 package com.ega.bank.ega_bank_api.service;
 
+import com.ega.bank.ega_bank_api.dto.ClientSummary;
+import com.ega.bank.ega_bank_api.model.Account;
 import com.ega.bank.ega_bank_api.model.Client;
 import com.ega.bank.ega_bank_api.repository.ClientRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -12,19 +18,35 @@ import java.util.List;
 public class ClientService {
 
     private final ClientRepository clientRepository;
+    private final AccountCache accountCache;
 
     public Client create(Client client) {
         return clientRepository.save(client);
     }
 
+    @Transactional(readOnly = true)
     public List<Client> findAll() {
         return clientRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public Page<Client> findAll(Pageable pageable) {
+        Page<Client> page = clientRepository.findAll(pageable);
+        // initialise the accounts inside the transaction: one batched query per 100 clients
+        page.forEach(c -> Hibernate.initialize(c.getAccounts()));
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ClientSummary> summarize(Pageable pageable) {
+        return clientRepository.summarize(pageable);
+    }
+
     public Client findById(Long id) {
         return clientRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Client not found"));
     }
 
+    @Transactional
     public Client update(Long id, Client updated) {
         Client existing = clientRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Client not found"));
         existing.setFirstName(updated.getFirstName());
@@ -35,10 +57,22 @@ public class ClientService {
         existing.setPhone(updated.getPhone());
         existing.setEmail(updated.getEmail());
         existing.setNationality(updated.getNationality());
+        // cached accounts carry a copy of their owner
+        evictAccounts(existing);
         return clientRepository.save(existing);
     }
 
+    @Transactional
     public void delete(Long id) {
+        clientRepository.findById(id).ifPresent(this::evictAccounts);
         clientRepository.deleteById(id);
     }
+
+    private void evictAccounts(Client client) {
+        if (client.getAccounts() != null) {
+            for (Account account : client.getAccounts()) {
+                accountCache.evict(account.getAccountNumber());
+            }
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.dto.StatementHeader;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes statement rows as CSV straight to an output stream through a fixed-size buffer,
+ * so memory use does not depend on the number of rows. The account and its opening and
+ * closing balances go in {@code #} comment lines ahead of the column header; every line after
+ * the column header is one movement.
+ */
+public class CsvStatementWriter implements Flushable, Closeable {
+
+    static final String HEADER = "id,type,amount,timestamp,sourceAccount,destinationAccount,description\n";
+
+    private final Writer out;
+    private long rows;
+
+    public CsvStatementWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    public void writeHeader(StatementHeader header) throws IOException {
+        out.write("# account,");
+        out.write(header.getAccountNumber());
+        out.write('\n');
+        out.write("# opening_balance,");
+        out.write(String.valueOf(header.getOpeningBalance()));
+        out.write(',');
+        out.write(String.valueOf(header.getStart()));
+        out.write('\n');
+        out.write("# closing_balance,");
+        out.write(String.valueOf(header.getClosingBalance()));
+        out.write(',');
+        out.write(String.valueOf(header.getEnd()));
+        out.write('\n');
+        out.write(HEADER);
+    }
+
+    public void writeRow(TransactionView t) throws IOException {
+        out.write(String.valueOf(t.getId()));
+        out.write(',');
+        out.write(String.valueOf(t.getType()));
+        out.write(',');
+        out.write(String.valueOf(t.getAmount()));
+        out.write(',');
+        out.write(String.valueOf(t.getTimestamp()));
+        out.write(',');
+        writeNullable(t.getSourceAccount());
+        out.write(',');
+        writeNullable(t.getDestinationAccount());
+        out.write(',');
+        if (t.getDescription() != null) {
+            out.write(t.getDescription().replace(',', ' '));
+        }
+        out.write('\n');
+        rows++;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    private void writeNullable(String value) throws IOException {
+        if (value != null) {
+            out.write(value);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // Flushes but leaves the underlying stream open: it belongs to the caller (usually the servlet response)
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+}
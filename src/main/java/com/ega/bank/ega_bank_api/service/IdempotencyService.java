@@ -0,0 +1,196 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.exception.IdempotencyConflictException;
+import com.ega.bank.ega_bank_api.exception.ServiceBusyException;
+import com.ega.bank.ega_bank_api.model.IdempotencyRecord;
+import com.ega.bank.ega_bank_api.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes mutating requests that carry an {@code Idempotency-Key} header safe to retry.
+ * <p>
+ * The first request with a key runs the operation and, in the same transaction, stores its JSON
+ * response. Retries with the same key and the same request get that response back
+ * ({@code Idempotent-Replayed: true}) without touching balances; the same key with a different
+ * request is a 409. Completed responses are kept in memory for {@code idempotency.ttl} and in the
+ * database until a scheduled purge; past {@code idempotency.ttl} the key is free again, even if the
+ * purge has not removed its record yet. Concurrent duplicates in this instance wait for the first
+ * attempt; across instances the primary key on the record lets only one of them commit.
+ * Failed attempts store nothing, so they can be retried.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final Duration ttl;
+    private final long waitMillis;
+    private final Cache<String, IdempotencyRecord> completed;
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              JsonMapper jsonMapper,
+                              @Value("${idempotency.ttl:24h}") Duration ttl,
+                              @Value("${idempotency.memory.maximum-size:100000}") long maximumSize,
+                              @Value("${idempotency.wait-timeout-ms:30000}") long waitMillis) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonMapper = jsonMapper;
+        this.ttl = ttl;
+        this.waitMillis = waitMillis;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code action} once per key. {@code request} describes the operation and its parameters;
+     * without a key the action simply runs.
+     */
+    public <T> ResponseEntity<?> execute(String idempotencyKey, String request, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(action.get());
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String key = currentUser() + ":" + idempotencyKey;
+        String fingerprint = sha256(request);
+        while (true) {
+            Optional<IdempotencyRecord> found = lookup(key);
+            if (found.isPresent() && !isExpired(found.get())) {
+                return replay(found.get(), fingerprint);
+            }
+            CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> first = inFlight.putIfAbsent(key, mine);
+            if (first == null) {
+                // an expired record not purged yet still holds the key
+                return runFirst(key, fingerprint, action, mine, found.isPresent());
+            }
+            IdempotencyRecord original = await(first);
+            if (original != null) {
+                return replay(original, fingerprint);
+            }
+            // the first attempt failed and stored nothing: go again
+        }
+    }
+
+    private <T> ResponseEntity<?> runFirst(String key, String fingerprint, Supplier<T> action, CompletableFuture<IdempotencyRecord> mine,
+                                           boolean replaceExpired) {
+        IdempotencyRecord[] stored = new IdempotencyRecord[1];
+        IdempotencyRecord record = null;
+        try {
+            // the operation's own transaction joins this one, so the record commits with the movement
+            T result = transactionTemplate.execute(status -> {
+                if (replaceExpired) {
+                    repository.deleteIfExpired(key, LocalDateTime.now());
+                }
+                T r = action.get();
+                LocalDateTime now = LocalDateTime.now();
+                stored[0] = repository.saveAndFlush(new IdempotencyRecord(key, fingerprint, jsonMapper.writeValueAsString(r), now, now.plus(ttl)));
+                return r;
+            });
+            record = stored[0];
+            completed.put(key, record);
+            return ResponseEntity.ok(result);
+        } catch (DataIntegrityViolationException ex) {
+            // another instance committed this key first; its movement stands and ours was rolled back
+            record = repository.findById(key).orElseThrow(() -> ex);
+            completed.put(key, record);
+            return replay(record, fingerprint);
+        } finally {
+            inFlight.remove(key, mine);
+            mine.complete(record);
+        }
+    }
+
+    // the stored record, expired or not; only live ones are cached
+    private Optional<IdempotencyRecord> lookup(String key) {
+        IdempotencyRecord cached = completed.getIfPresent(key);
+        if (cached != null && !isExpired(cached)) {
+            return Optional.of(cached);
+        }
+        Optional<IdempotencyRecord> stored = repository.findById(key);
+        stored.filter(r -> !isExpired(r)).ifPresent(r -> completed.put(key, r));
+        return stored;
+    }
+
+    private static boolean isExpired(IdempotencyRecord record) {
+        return !record.getExpiresAt().isAfter(LocalDateTime.now());
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> first) {
+        try {
+            return first.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ServiceBusyException("A request with this " + HEADER + " is still being processed");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for the original request");
+        } catch (ExecutionException ex) {
+            return null;
+        }
+    }
+
+    private static ResponseEntity<String> replay(IdempotencyRecord record, String fingerprint) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyConflictException(HEADER + " was already used for a different request");
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", "true")
+                .body(record.getResponseBody());
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        transactionTemplate.executeWithoutResult(status -> repository.deleteExpired(LocalDateTime.now()));
+    }
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : "anonymous";
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.dto.StatementHeader;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Renders multi-page PDF statements with bounded memory.
+ * <p>
+ * Page content is spilled to a PDFBox scratch file once the in-memory budget is used, rows are
+ * pulled one at a time from the caller's iterator, each page is written as a single text object
+ * and the finished document is saved straight to the target stream.
+ */
+@Component
+public class PdfStatementRenderer {
+
+    private static final PDFont TITLE_FONT = PDType1Font.HELVETICA_BOLD;
+    private static final PDFont BODY_FONT = PDType1Font.HELVETICA;
+    private static final float MARGIN_X = 50f;
+    private static final float TOP_Y = 750f;
+    private static final float BOTTOM_Y = 50f;
+    private static final float LEADING = 14f;
+    private static final int ROWS_PER_PAGE = (int) ((TOP_Y - BOTTOM_Y) / LEADING);
+    // same widths as the previous "%-8s %-12s %-12s %-24s %-16s %-16s" layout
+    private static final int[] COLUMNS = {8, 12, 12, 24, 16, 16};
+
+    @Value("${statement.pdf.max-main-memory-bytes:4194304}")
+    private long maxMainMemoryBytes = 4L * 1024 * 1024;
+
+    @Value("${statement.pdf.temp-dir:}")
+    private String tempDir = "";
+
+    // For benchmarks and tests: configure the in-memory budget before spilling to the scratch file
+    public void setMaxMainMemoryBytes(long maxMainMemoryBytes) {
+        this.maxMainMemoryBytes = maxMainMemoryBytes;
+    }
+
+    /**
+     * Renders the statement and writes it to {@code out}. Returns the number of rows rendered.
+     */
+    public long render(StatementHeader header, Iterator<TransactionView> rows, OutputStream out) throws IOException {
+        MemoryUsageSetting memory = MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+        if (tempDir != null && !tempDir.isBlank()) {
+            memory.setTempDir(new File(tempDir));
+        }
+        long count = 0;
+        StringBuilder line = new StringBuilder(128);
+        try (PDDocument doc = new PDDocument(memory)) {
+            PDPageContentStream cs = openPage(doc);
+            try {
+                writeHeader(cs, header, line);
+                // header and column titles take the first four lines of page one
+                int remaining = ROWS_PER_PAGE - 4;
+                while (rows.hasNext()) {
+                    if (remaining == 0) {
+                        cs.endText();
+                        cs.close();
+                        cs = openPage(doc);
+                        cs.setFont(BODY_FONT, 10);
+                        remaining = ROWS_PER_PAGE;
+                    }
+                    TransactionView t = rows.next();
+                    line.setLength(0);
+                    appendRow(line, t.getId(), t.getType(), t.getAmount(), t.getTimestamp(), t.getSourceAccount(), t.getDestinationAccount());
+                    cs.showText(line.toString());
+                    cs.newLine();
+                    remaining--;
+                    count++;
+                }
+                cs.endText();
+            } finally {
+                cs.close();
+            }
+            doc.save(out);
+        }
+        return count;
+    }
+
+    private PDPageContentStream openPage(PDDocument doc) throws IOException {
+        PDPage page = new PDPage();
+        doc.addPage(page);
+        PDPageContentStream cs = new PDPageContentStream(doc, page);
+        cs.beginText();
+        cs.setLeading(LEADING);
+        cs.newLineAtOffset(MARGIN_X, TOP_Y);
+        return cs;
+    }
+
+    private void writeHeader(PDPageContentStream cs, StatementHeader header, StringBuilder line) throws IOException {
+        cs.setFont(TITLE_FONT, 14);
+        cs.showText("Statement for account: " + header.getAccountNumber());
+        cs.newLine();
+        cs.setFont(BODY_FONT, 10);
+        String owner = header.getOwner() != null ? header.getOwner() : "";
+        cs.showText("Owner: " + owner + "    Balance: " + (header.getBalance() != null ? header.getBalance() : "N/A"));
+        cs.newLine();
+        cs.showText("Opening balance (" + header.getStart() + "): " + header.getOpeningBalance()
+                + "    Closing balance (" + header.getEnd() + "): " + header.getClosingBalance());
+        cs.newLine();
+        line.setLength(0);
+        appendRow(line, "ID", "TYPE", "AMOUNT", "TIMESTAMP", "SRC", "DST");
+        cs.showText(line.toString());
+        cs.newLine();
+    }
+
+    private static void appendRow(StringBuilder line, Object... cells) {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                line.append(' ');
+            }
+            int start = line.length();
+            if (cells[i] != null) {
+                line.append(cells[i]);
+            }
+            for (int pad = COLUMNS[i] - (line.length() - start); pad > 0; pad--) {
+                line.append(' ');
+            }
+        }
+    }
+}
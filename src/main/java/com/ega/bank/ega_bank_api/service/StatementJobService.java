@@ -0,0 +1,247 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.dto.StatementJobView;
+import com.ega.bank.ega_bank_api.exception.ServiceBusyException;
+import com.ega.bank.ega_bank_api.model.Account;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Generates CSV and PDF statements in the background so that long periods do not hold a request
+ * thread. Jobs run on {@code statement.jobs.workers} threads; at most
+ * {@code statement.jobs.queue-capacity} jobs wait, beyond that submissions get a
+ * {@link ServiceBusyException} (503). Waiting jobs are ordered by period length, so a one-month
+ * statement does not queue behind a year-long one, then by submission order.
+ * <p>
+ * Files are written to the spool directory under a temporary name and renamed when complete.
+ * Finished jobs and their files are removed after {@code statement.jobs.retention}; the spool is
+ * emptied at startup. Job state lives in memory: jobs do not survive a restart.
+ */
+@Service
+public class StatementJobService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementJobService.class);
+
+    public enum Format {
+        CSV("text/csv", ".csv"),
+        PDF("application/pdf", ".pdf");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    private final StatementService statementService;
+    private final Path spoolDir;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    // queued + running jobs; bounds the otherwise unbounded priority queue
+    private final Semaphore slots;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong submissions = new AtomicLong();
+
+    public StatementJobService(StatementService statementService,
+                               MeterRegistry meterRegistry,
+                               @Value("${statement.jobs.workers:2}") int workers,
+                               @Value("${statement.jobs.queue-capacity:50}") int queueCapacity,
+                               @Value("${statement.jobs.retention:1h}") Duration retention,
+                               @Value("${statement.jobs.spool-dir:}") String spoolDir) throws IOException {
+        this.statementService = statementService;
+        this.retention = retention;
+        this.spoolDir = spoolDir == null || spoolDir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "ega-statements")
+                : Path.of(spoolDir);
+        Files.createDirectories(this.spoolDir);
+        clearSpool();
+        this.slots = new Semaphore(workers + queueCapacity);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("statement-job-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory);
+        Gauge.builder("statement.jobs.queue", executor, e -> e.getQueue().size())
+                .description("Statement jobs waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a statement for {@code account} on behalf of {@code owner}.
+     */
+    public StatementJobView submit(Account account, LocalDateTime start, LocalDateTime end, Format format, String owner) {
+        if (!slots.tryAcquire()) {
+            throw new ServiceBusyException("Too many statement jobs queued, retry later");
+        }
+        Job job = new Job(UUID.randomUUID().toString(), account, start, end, format, owner, submissions.incrementAndGet());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(job);
+        } catch (RuntimeException ex) {
+            jobs.remove(job.id);
+            slots.release();
+            throw ex;
+        }
+        return job.view();
+    }
+
+    /**
+     * The job, if it exists and belongs to {@code owner}.
+     */
+    public Optional<StatementJobView> find(String id, String owner) {
+        return findJob(id, owner).map(Job::view);
+    }
+
+    /**
+     * Path of the finished file, if the job exists, belongs to {@code owner} and is done.
+     */
+    public Optional<Path> file(String id, String owner) {
+        return findJob(id, owner).filter(j -> j.status == Status.DONE).map(j -> j.file);
+    }
+
+    private Optional<Job> findJob(String id, String owner) {
+        return Optional.ofNullable(jobs.get(id)).filter(j -> j.owner.equals(owner));
+    }
+
+    @Scheduled(fixedDelayString = "${statement.jobs.cleanup-interval-ms:300000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(cutoff)) {
+                return false;
+            }
+            if (job.file != null) {
+                deleteQuietly(job.file);
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void clearSpool() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.forEach(StatementJobService::deleteQuietly);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete spooled statement {}", file, ex);
+        }
+    }
+
+    // shorter periods first, then first come first served
+    private static final Comparator<Job> PRIORITY = Comparator
+            .comparingLong((Job j) -> Duration.between(j.start, j.end).toMinutes())
+            .thenComparingLong(j -> j.sequence);
+
+    private final class Job implements Runnable, Comparable<Job> {
+        private final String id;
+        private final Account account;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final Format format;
+        private final String owner;
+        private final long sequence;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile Long rows;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+        private volatile Path file;
+
+        private Job(String id, Account account, LocalDateTime start, LocalDateTime end, Format format, String owner, long sequence) {
+            this.id = id;
+            this.account = account;
+            this.start = start;
+            this.end = end;
+            this.format = format;
+            this.owner = owner;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            status = Status.RUNNING;
+            Path partial = spoolDir.resolve(id + format.getExtension() + ".part");
+            Path target = spoolDir.resolve(id + format.getExtension());
+            try {
+                try (OutputStream out = Files.newOutputStream(partial)) {
+                    rows = format == Format.CSV
+                            ? statementService.writeCsv(account, start, end, out)
+                            : statementService.writePdf(account, start, end, out);
+                }
+                Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+                file = target;
+                status = Status.DONE;
+            } catch (Exception ex) {
+                log.warn("Statement job {} failed", id, ex);
+                deleteQuietly(partial);
+                error = ex.getMessage();
+                status = Status.FAILED;
+            } finally {
+                finishedAt = LocalDateTime.now();
+                slots.release();
+            }
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            return PRIORITY.compare(this, other);
+        }
+
+        private StatementJobView view() {
+            String download = status == Status.DONE ? "/api/statements/jobs/" + id + "/download" : null;
+            return new StatementJobView(id, account.getAccountNumber(), format.name(), start, end, status.name(),
+                    rows, createdAt, finishedAt, error, download);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.dto.StatementHeader;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.monitoring.BankingMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class StatementService {
+
+    private final TransactionHistory transactionHistory;
+    private final PdfStatementRenderer pdfStatementRenderer;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final BankingMetrics bankingMetrics;
+
+    /**
+     * Streams the account's movements for the period as CSV. Rows are read through a
+     * forward-only cursor and written as they arrive, so heap use stays flat whatever
+     * the statement size. The opening and closing balances are written as comment lines
+     * before the column header. Returns the number of movement rows written.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public long writeCsv(Account account, LocalDateTime start, LocalDateTime end, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        CsvStatementWriter csv = new CsvStatementWriter(out);
+        csv.writeHeader(header(account, start, end));
+        try (Stream<TransactionView> lines = transactionHistory.streamStatementLines(account.getId(), start, end)) {
+            lines.forEach(line -> {
+                try {
+                    csv.writeRow(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csv.close();
+        bankingMetrics.recordStatement("csv", csv.getRows(), System.nanoTime() - started);
+        return csv.getRows();
+    }
+
+    /**
+     * Renders the account's movements for the period as a PDF written directly to {@code out}.
+     * Rows are pulled from the same forward-only cursor as the CSV export. Returns the number of rows rendered.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public long writePdf(Account account, LocalDateTime start, LocalDateTime end, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        StatementHeader header = header(account, start, end);
+        try (Stream<TransactionView> lines = transactionHistory.streamStatementLines(account.getId(), start, end)) {
+            long rows = pdfStatementRenderer.render(header, lines.iterator(), out);
+            bankingMetrics.recordStatement("pdf", rows, System.nanoTime() - started);
+            return rows;
+        }
+    }
+
+    private StatementHeader header(Account account, LocalDateTime start, LocalDateTime end) {
+        String owner = account.getOwner() != null ? account.getOwner().getFirstName() + " " + account.getOwner().getLastName() : "";
+        return new StatementHeader(account.getAccountNumber(), owner, account.getBalance(), start, end,
+                balanceCheckpointService.balanceBefore(account.getId(), start), balanceCheckpointService.balanceAsOf(account.getId(), end));
+    }
+}
@@ -0,0 +1,146 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.archive.ArchivedTransaction;
+import com.ega.bank.ega_bank_api.archive.TransactionArchive;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * An account's movements across both tiers: months before {@link TransactionArchive#boundary()}
+ * come from the archive files, later ones from the {@code transactions} table. A period that
+ * starts after the boundary costs exactly the table query it always did; one that ends before it
+ * touches no table at all.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionHistory {
+
+    private static final Comparator<TransactionView> OLDEST_FIRST = Comparator.comparing(TransactionView::getTimestamp)
+            .thenComparing(TransactionView::getId);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchive archive;
+
+    /**
+     * Movements between {@code start} and {@code end}, both inclusive, in no particular order.
+     */
+    public List<TransactionView> findByAccountAndPeriod(Long accountId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime boundary = archive.boundary();
+        if (!start.isBefore(boundary)) {
+            return transactionRepository.findByAccountAndPeriod(accountId, start, end);
+        }
+        List<TransactionView> movements;
+        try (Stream<ArchivedTransaction> archived = archive.stream(accountId, start, end)) {
+            movements = new ArrayList<>(archived.map(ArchivedTransaction::toView).toList());
+        }
+        if (!end.isBefore(boundary)) {
+            movements.addAll(transactionRepository.findByAccountAndPeriod(accountId, boundary, end));
+        }
+        return movements;
+    }
+
+    /**
+     * Page of the movements between {@code start} and {@code end}. When the period reaches into the
+     * archive the whole period is read and ordered by timestamp, in the direction the pageable
+     * sorts {@code timestamp} (oldest first otherwise), before the page is cut.
+     */
+    public Page<TransactionView> findByAccountAndPeriod(Long accountId, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        if (!start.isBefore(archive.boundary())) {
+            return transactionRepository.findByAccountAndPeriod(accountId, start, end, pageable);
+        }
+        List<TransactionView> movements = findByAccountAndPeriod(accountId, start, end);
+        Sort.Order byTime = pageable.getSort().getOrderFor("timestamp");
+        movements.sort(byTime != null && byTime.isDescending() ? OLDEST_FIRST.reversed() : OLDEST_FIRST);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(movements, pageable, movements.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), movements.size());
+        int to = Math.min(from + pageable.getPageSize(), movements.size());
+        return new PageImpl<>(new ArrayList<>(movements.subList(from, to)), pageable, movements.size());
+    }
+
+    /**
+     * Archived movements at or after {@code start} and strictly before ({@code beforeTs}, {@code beforeId}),
+     * newest first, at most {@code limit} of them. The keyset pages continue here once the table has
+     * nothing older to give.
+     */
+    public List<TransactionView> findArchivedBefore(Long accountId, LocalDateTime start, LocalDateTime beforeTs, Long beforeId, int limit) {
+        List<TransactionView> result = new ArrayList<>(Math.min(limit, 256));
+        for (LocalDate period : archive.periods(start, beforeTs).descendingSet()) {
+            LocalDateTime monthStart = period.atStartOfDay();
+            LocalDateTime monthEnd = period.plusMonths(1).atStartOfDay();
+            LocalDateTime from = start.isAfter(monthStart) ? start : monthStart;
+            LocalDateTime to = beforeTs.isBefore(monthEnd) ? beforeTs : monthEnd.minusNanos(1);
+            List<TransactionView> month;
+            try (Stream<ArchivedTransaction> archived = archive.stream(accountId, from, to)) {
+                month = archived
+                        .filter(tx -> tx.getTimestamp().isBefore(beforeTs) || tx.getId() < beforeId)
+                        .map(ArchivedTransaction::toView)
+                        .toList();
+            }
+            for (int i = month.size() - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(month.get(i));
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Statement lines between {@code start} and {@code end}, both inclusive, in (timestamp, id)
+     * order: the archived months first, then a cursor over the table. Must be consumed inside a
+     * transaction and closed.
+     */
+    public Stream<TransactionView> streamStatementLines(Long accountId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime boundary = archive.boundary();
+        if (!start.isBefore(boundary)) {
+            return transactionRepository.streamStatementLines(accountId, start, end);
+        }
+        Stream<TransactionView> archived = archive.stream(accountId, start, end).map(ArchivedTransaction::toView);
+        if (end.isBefore(boundary)) {
+            return archived;
+        }
+        return Stream.concat(archived, transactionRepository.streamStatementLines(accountId, boundary, end));
+    }
+
+    /**
+     * Net effect on the account of the movements after ({@code afterTs}, {@code afterId}) and
+     * strictly before {@code before}, as {@link TransactionRepository#netMovementMinor}.
+     */
+    public Money netMovement(Long accountId, LocalDateTime afterTs, Long afterId, LocalDateTime before) {
+        LocalDateTime boundary = archive.boundary();
+        if (!afterTs.isBefore(boundary)) {
+            return transactionRepository.netMovement(accountId, afterTs, afterId, before);
+        }
+        long net = 0;
+        try (Stream<ArchivedTransaction> archived = archive.stream(accountId, afterTs, before)) {
+            for (ArchivedTransaction tx : (Iterable<ArchivedTransaction>) archived::iterator) {
+                boolean after = tx.getTimestamp().isAfter(afterTs) || tx.getId() > afterId;
+                if (after && tx.getTimestamp().isBefore(before)) {
+                    net = Math.addExact(net, tx.deltaMinor(accountId));
+                }
+            }
+        }
+        if (before.isAfter(boundary)) {
+            // every id is positive: (boundary, 0) is before any movement timestamped at the boundary
+            net = Math.addExact(net, transactionRepository.netMovementMinor(accountId, boundary, 0L, before));
+        }
+        return Money.ofMinor(net);
+    }
+}
@@ -9,9 +9,10 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.*;
 
+import static com.ega.bank.ega_bank_api.monitoring.SqlBudget.assertStatementsAtMost;
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "sql.accounting.headers=true")
 public class IntegrationTests {
 
 
@@ -77,6 +78,8 @@ public class IntegrationTests {
         // get account and check balance
         ResponseEntity<String> getAccResp = restTemplate.exchange(base + "/api/accounts/" + accountNumber, HttpMethod.GET, new HttpEntity<>(headers), String.class);
         assertThat(getAccResp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // account and its owner, unless already cached
+        assertStatementsAtMost(getAccResp, 3);
         JsonNode getAccNode = objectMapper.readTree(getAccResp.getBody());
         String balance = getAccNode.get("balance").asText();
         assertThat(balance).isNotBlank();
@@ -119,8 +122,15 @@ public class IntegrationTests {
             String depositJson = String.format("{\"amount\": %d }", 10 + i);
             ResponseEntity<String> depResp = restTemplate.postForEntity(base + "/api/accounts/" + accountNumber + "/deposit", new HttpEntity<>(depositJson, headers), String.class);
             assertThat(depResp.getStatusCode()).isEqualTo(HttpStatus.OK);
+            // account lookup and lock, sequence refills, insert, update, the activity rollup upsert and the odd checkpoint
+            assertStatementsAtMost(depResp, 13);
         }
 
+        // paged client listing: clients, count, and one batched query for their accounts
+        ResponseEntity<String> clientsResp = restTemplate.exchange(base + "/api/clients?page=0&size=10", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(clientsResp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertStatementsAtMost(clientsResp, 4);
+
         // request first page (size 10)
         String start = "2000-01-01T00:00:00";
         String end = "2100-01-01T00:00:00";
@@ -133,6 +143,8 @@ public class IntegrationTests {
         assertThat(pageNode.get("content")).hasSize(10);
         assertThat(pageNode.has("totalElements")).isTrue();
         assertThat(pageNode.get("totalElements").asInt()).isGreaterThanOrEqualTo(25);
+        // account lookup, page and count: the projection loads no account or client entities
+        assertStatementsAtMost(pageResp, 5);
 
         // request PDF statement
         ResponseEntity<byte[]> pdfResp = restTemplate.exchange(base + "/api/accounts/" + accountNumber + "/statement.pdf?start=" + start + "&end=" + end, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
@@ -141,5 +153,7 @@ public class IntegrationTests {
         assertThat(pdfResp.getHeaders().getContentType().toString()).contains("pdf");
         assertThat(pdfResp.getBody()).isNotNull();
         assertThat(pdfResp.getBody().length).isGreaterThan(100);
+        // balances from checkpoints plus a single cursor over the movements
+        assertStatementsAtMost(pdfResp, 8);
     }
 }
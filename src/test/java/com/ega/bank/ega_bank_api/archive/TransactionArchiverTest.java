@@ -0,0 +1,128 @@
+package com.ega.bank.ega_bank_api.archive;
+
+import com.ega.bank.ega_bank_api.dto.CursorPage;
+import com.ega.bank.ega_bank_api.dto.TransactionView;
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.AccountType;
+import com.ega.bank.ega_bank_api.model.Client;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import com.ega.bank.ega_bank_api.repository.AccountRepository;
+import com.ega.bank.ega_bank_api.repository.ClientRepository;
+import com.ega.bank.ega_bank_api.repository.TransactionRepository;
+import com.ega.bank.ega_bank_api.service.AccountService;
+import com.ega.bank.ega_bank_api.service.StatementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"transactions.archive.enabled=true", "transactions.archive.dir=target/archive-test"})
+public class TransactionArchiverTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private TransactionArchiver archiver;
+    @Autowired
+    private TransactionArchive archive;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private StatementService statementService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void oldMonthsMoveToTheArchiveAndReadsStayTheSame() throws Exception {
+        String number = accountService.createAccount(client(), AccountType.CHECKING).getAccountNumber();
+        Account account = accountRepository.findByAccountNumber(number).orElseThrow();
+        transactionRepository.saveAll(List.of(
+                movement(TransactionType.DEPOSIT, "10.00", null, account, LocalDateTime.of(2024, 3, 4, 10, 0)),
+                movement(TransactionType.DEPOSIT, "20.00", null, account, LocalDateTime.of(2024, 3, 15, 12, 0)),
+                movement(TransactionType.DEPOSIT, "5.50", null, account, LocalDateTime.of(2024, 3, 15, 12, 0)),
+                movement(TransactionType.WITHDRAWAL, "7.00", account, null, LocalDateTime.of(2024, 3, 31, 23, 59)),
+                movement(TransactionType.DEPOSIT, "100.00", null, account, LocalDateTime.of(2024, 4, 1, 0, 0))));
+        accountService.deposit(number, Money.of("1.00"));
+        LocalDateTime end = LocalDateTime.now().plusDays(1);
+
+        List<TransactionView> before = byId(accountService.getTransactionsForPeriod(number, START, end));
+        assertEquals(6, before.size());
+        Money endOfMarch = accountService.getBalanceAsOf(number, LocalDateTime.of(2024, 3, 31, 23, 59));
+        assertEquals(Money.of("28.50"), endOfMarch);
+        Money atEnd = accountService.getBalanceAsOf(number, end);
+
+        archiver.archiveDue();
+
+        assertTrue(archive.isArchived(LocalDate.of(2024, 3, 1)));
+        assertTrue(archive.isArchived(LocalDate.of(2024, 4, 1)));
+        assertTrue(Files.exists(Path.of("target/archive-test/transactions-2024-03.archive")));
+        assertFalse(transactionRepository.findOldestTimestamp().isBefore(LocalDate.now().withDayOfMonth(1).minusMonths(12).atStartOfDay()));
+
+        assertEquals(before, byId(accountService.getTransactionsForPeriod(number, START, end)));
+        assertEquals(2, accountService.getTransactionsForPeriod(number, LocalDateTime.of(2024, 3, 15, 12, 0), LocalDateTime.of(2024, 3, 20, 0, 0)).size());
+        assertEquals(endOfMarch, accountService.getBalanceAsOf(number, LocalDateTime.of(2024, 3, 31, 23, 59)));
+        assertEquals(atEnd, accountService.getBalanceAsOf(number, end));
+
+        // keyset pages run from the table into the archive
+        List<TransactionView> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<TransactionView> page = accountService.getTransactionsBefore(number, START, end, cursor, 2);
+            paged.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(before, byId(paged));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertEquals(6, statementService.writeCsv(accountService.findByAccountNumber(number).orElseThrow(), START, end, csv));
+        // balances sit in the comment preamble: after the column header, one line per movement
+        List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertTrue(lines.get(1).startsWith("# opening_balance,"));
+        assertTrue(lines.get(2).startsWith("# closing_balance,"));
+        assertEquals(4 + 6, lines.size());
+    }
+
+    private static List<TransactionView> byId(List<TransactionView> movements) {
+        return movements.stream().sorted(Comparator.comparing(TransactionView::getId)).toList();
+    }
+
+    private static Transaction movement(TransactionType type, String amount, Account source, Account destination, LocalDateTime at) {
+        Transaction tx = new Transaction();
+        tx.setType(type);
+        tx.setAmount(Money.of(amount));
+        tx.setSourceAccount(source);
+        tx.setDestinationAccount(destination);
+        tx.setTimestamp(at);
+        return tx;
+    }
+
+    private Long client() {
+        Client client = new Client();
+        client.setFirstName("Old");
+        client.setLastName("History");
+        client.setBirthDate(LocalDate.of(1980, 1, 1));
+        client.setGender("M");
+        client.setAddress("There");
+        client.setPhone("+33222222222");
+        client.setEmail("archive" + System.nanoTime() + "@example.com");
+        client.setNationality("FR");
+        return clientRepository.save(client).getId();
+    }
+}
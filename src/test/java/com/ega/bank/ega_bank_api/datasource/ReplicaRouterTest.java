@@ -0,0 +1,100 @@
+package com.ega.bank.ega_bank_api.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two embedded H2 databases stand in for a primary and its replica; each one answers
+ * {@code select name from node} with its own name.
+ */
+public class ReplicaRouterTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:router-primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:router-replica;DB_CLOSE_DELAY=-1";
+
+    private final DataSource primaryDs = node(PRIMARY_URL, "primary");
+    private final JdbcTemplate replicaDb = new JdbcTemplate(node(REPLICA_URL, "replica"));
+    private final ReplicaRouter router = new ReplicaRouter(List.of(REPLICA_URL), "sa", "",
+            Duration.ofSeconds(5), Duration.ofSeconds(5), 2,
+            new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    private final DataSource routed = router.route(primaryDs);
+    private final JdbcTemplate jdbc = new JdbcTemplate(routed);
+    private final DataSourceTransactionManager txManager = new DataSourceTransactionManager(routed);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        router.destroy();
+        new JdbcTemplate(primaryDs).execute("drop all objects");
+        replicaDb.execute("drop all objects");
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaWhileItKeepsUp() {
+        assertEquals("primary", read());
+
+        // the first checks create and stamp the heartbeat, the replica has never seen one
+        router.checkLag();
+        router.checkLag();
+        assertEquals("primary", read());
+
+        replicateHeartbeat(0);
+        router.checkLag();
+        assertEquals("replica", read());
+        assertEquals("replica", read());
+        assertEquals("primary", write());
+
+        // read-your-writes
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        router.recordWrite("alice");
+        assertEquals("primary", read());
+        SecurityContextHolder.clearContext();
+        assertEquals("replica", read());
+
+        // ten minutes behind
+        replicateHeartbeat(Duration.ofMinutes(10).toMillis());
+        router.checkLag();
+        assertEquals("primary", read());
+    }
+
+    private String read() {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> jdbc.queryForObject("select name from node", String.class));
+    }
+
+    private String write() {
+        return new TransactionTemplate(txManager)
+                .execute(status -> jdbc.queryForObject("select name from node", String.class));
+    }
+
+    // copies the primary's heartbeat to the replica, made older by lagMillis
+    private void replicateHeartbeat(long lagMillis) {
+        long beat = new JdbcTemplate(primaryDs).queryForObject("select beat from replica_heartbeat where id = 1", Long.class);
+        replicaDb.execute("create table if not exists replica_heartbeat (id int primary key, beat bigint not null)");
+        replicaDb.update("merge into replica_heartbeat (id, beat) key (id) values (1, ?)", beat - lagMillis);
+    }
+
+    private static DataSource node(String url, String name) {
+        DataSource ds = new DriverManagerDataSource(url, "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("create table node (name varchar(16))");
+        jdbc.update("insert into node (name) values (?)", name);
+        return ds;
+    }
+}
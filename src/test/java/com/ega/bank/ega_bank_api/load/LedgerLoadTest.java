@@ -0,0 +1,176 @@
+package com.ega.bank.ega_bank_api.load;
+
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.repository.AccountRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent ledger load against the embedded application over HTTP: a random mix of transfers
+ * (60%), deposits (20%) and withdrawals (20%) on a small set of accounts, so most operations contend
+ * for the same rows. Reports throughput and latency percentiles, then checks that money was
+ * conserved (final total = initial total + accepted deposits - accepted withdrawals), that no
+ * balance went negative, and that the cached account view agrees with the database.
+ * <p>
+ * Sized for CI by default; scale it up with {@code -Dload.operations=100000 -Dload.threads=64
+ * -Dload.accounts=10}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledgerload;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=30000",
+        "spring.jpa.show-sql=false"
+})
+public class LedgerLoadTest {
+
+    private static final int OPERATIONS = Integer.getInteger("load.operations", 3000);
+    private static final int THREADS = Integer.getInteger("load.threads", 32);
+    private static final int ACCOUNTS = Integer.getInteger("load.accounts", 8);
+    // minor units: 1000.00 per account, operations move 0.01 to 50.00
+    private static final long INITIAL_BALANCE = 100_000;
+    private static final long MAX_AMOUNT = 5_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private String base;
+    private String token;
+
+    @Test
+    void concurrentMovementsConserveMoney() throws Exception {
+        base = "http://localhost:" + port;
+        send("POST", "/api/auth/register", "{\"username\":\"loaduser\",\"password\":\"loadpass\"}");
+        token = json(send("POST", "/api/auth/login", "{\"username\":\"loaduser\",\"password\":\"loadpass\"}")).get("token").asText();
+        long clientId = json(send("POST", "/api/clients", "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"birthDate\":\"1990-01-01\","
+                + "\"gender\":\"M\",\"address\":\"Here\",\"phone\":\"+33111111111\",\"email\":\"load@example.com\",\"nationality\":\"FR\"}")).get("id").asLong();
+        List<String> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String number = json(send("POST", "/api/accounts", "{\"clientId\": " + clientId + ", \"type\": \"CHECKING\"}")).get("accountNumber").asText();
+            send("POST", "/api/accounts/" + number + "/deposit", "{\"amount\": " + BigDecimal.valueOf(INITIAL_BALANCE, 2) + "}");
+            accounts.add(number);
+        }
+
+        LongAdder deposited = new LongAdder();
+        LongAdder withdrawn = new LongAdder();
+        AtomicInteger rejected = new AtomicInteger();
+        Map<Integer, AtomicInteger> unexpected = new ConcurrentHashMap<>();
+        long[] latencies = new long[OPERATIONS];
+        AtomicLong next = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(THREADS);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            pool.execute(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int op = (int) next.getAndIncrement(); op < OPERATIONS; op = (int) next.getAndIncrement()) {
+                        long cents = 1 + random.nextLong(MAX_AMOUNT);
+                        String amount = "{\"amount\": " + BigDecimal.valueOf(cents, 2) + "}";
+                        int kind = random.nextInt(10);
+                        int a = random.nextInt(ACCOUNTS);
+                        long t0 = System.nanoTime();
+                        HttpResponse<String> response;
+                        if (kind < 6) {
+                            int b = (a + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                            response = send("POST", "/api/accounts/transfer", "{\"fromAccount\":\"" + accounts.get(a) + "\",\"toAccount\":\""
+                                    + accounts.get(b) + "\",\"amount\":" + BigDecimal.valueOf(cents, 2) + "}");
+                        } else if (kind < 8) {
+                            response = send("POST", "/api/accounts/" + accounts.get(a) + "/deposit", amount);
+                            if (response.statusCode() == 200) {
+                                deposited.add(cents);
+                            }
+                        } else {
+                            response = send("POST", "/api/accounts/" + accounts.get(a) + "/withdraw", amount);
+                            if (response.statusCode() == 200) {
+                                withdrawn.add(cents);
+                            }
+                        }
+                        latencies[op] = System.nanoTime() - t0;
+                        if (response.statusCode() == 400 && response.body().contains("InsufficientFunds")) {
+                            rejected.incrementAndGet();
+                        } else if (response.statusCode() != 200) {
+                            unexpected.computeIfAbsent(response.statusCode(), k -> new AtomicInteger()).incrementAndGet();
+                        }
+                    }
+                } catch (Exception ex) {
+                    unexpected.computeIfAbsent(-1, k -> new AtomicInteger()).incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertThat(done.await(10, TimeUnit.MINUTES)).isTrue();
+        long elapsed = System.nanoTime() - started;
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("ledger load: %d ops, %d threads, %d accounts in %.1f s -> %.0f ops/s; "
+                        + "p50=%.2f ms p99=%.2f ms p999=%.2f ms; insufficient funds=%d, unexpected=%s%n",
+                OPERATIONS, THREADS, ACCOUNTS, elapsed / 1e9, OPERATIONS / (elapsed / 1e9),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                rejected.get(), unexpected);
+
+        assertThat(unexpected).as("responses other than 200 or insufficient funds").isEmpty();
+        Money total = Money.ZERO;
+        for (String number : accounts) {
+            Account account = accountRepository.findByAccountNumber(number).orElseThrow();
+            assertThat(account.getBalance()).as("balance of %s", number).isGreaterThanOrEqualTo(Money.ZERO);
+            Money served = Money.of(json(send("GET", "/api/accounts/" + number, null)).get("balance").asText());
+            assertThat(served).as("cached balance of %s", number).isEqualTo(account.getBalance());
+            total = total.plus(account.getBalance());
+        }
+        long expected = INITIAL_BALANCE * ACCOUNTS + deposited.sum() - withdrawn.sum();
+        assertThat(total).as("sum of balances").isEqualTo(Money.ofMinor(expected));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode json(HttpResponse<String> response) throws Exception {
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,25 @@
+package com.ega.bank.ega_bank_api.monitoring;
+
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query-budget assertions for integration tests, based on the {@code X-Sql-*} headers that
+ * {@link SqlAccountingFilter} adds when {@code sql.accounting.headers=true}.
+ */
+public final class SqlBudget {
+
+    private SqlBudget() {
+    }
+
+    public static void assertStatementsAtMost(ResponseEntity<?> response, long budget) {
+        assertThat(statements(response)).as("SQL statements (X-Sql-Statements)").isLessThanOrEqualTo(budget);
+    }
+
+    public static long statements(ResponseEntity<?> response) {
+        String header = response.getHeaders().getFirst("X-Sql-Statements");
+        assertThat(header).as("X-Sql-Statements header; is sql.accounting.headers enabled?").isNotNull();
+        return Long.parseLong(header);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ega.bank.ega_bank_api.service;
+
+import org.iban4j.IbanUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// small blocks so the threads keep racing on the database-backed refill path
+@SpringBootTest(properties = "account.number.block-size=64")
+public class AccountNumberAllocatorTest {
+
+    private static final int THREADS = 16;
+    private static final int PER_THREAD = 2_000;
+
+    @Autowired
+    private AccountNumberAllocator allocator;
+
+    @Test
+    void next_isUniqueAndValidUnderManyThreads() throws Exception {
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        String number = allocator.next();
+                        assertTrue(seen.add(number), "duplicate account number " + number);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(THREADS * PER_THREAD, seen.size());
+        for (String number : seen) {
+            // throws on a bad format or mod-97 check digits
+            IbanUtil.validate(number);
+        }
+    }
+
+    @Test
+    void format_producesValidFrenchIban() {
+        AccountNumberAllocator local = new AccountNumberAllocator(size -> 1L, 10, "30001", "00001");
+        String number = local.next();
+        assertEquals("FR7630001000010000000000112", number);
+        IbanUtil.validate(number);
+    }
+}
@@ -0,0 +1,130 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.dto.ActivitySummary;
+import com.ega.bank.ega_bank_api.dto.BatchTransferRequest;
+import com.ega.bank.ega_bank_api.dto.TransferRequest;
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.AccountType;
+import com.ega.bank.ega_bank_api.model.Client;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.model.Transaction;
+import com.ega.bank.ega_bank_api.model.TransactionType;
+import com.ega.bank.ega_bank_api.repository.AccountActivityRepository;
+import com.ega.bank.ega_bank_api.repository.AccountRepository;
+import com.ega.bank.ega_bank_api.repository.ClientRepository;
+import com.ega.bank.ega_bank_api.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// same archive directory as TransactionArchiverTest: the rebuild reads the months it archived
+@SpringBootTest(properties = "transactions.archive.dir=target/archive-test")
+public class ActivityRollupsTest {
+
+    @Autowired
+    private ActivityRollups activityRollups;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private BalanceStripes balanceStripes;
+    @Autowired
+    private AccountActivityRepository activityRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void everyPathIsCountedAndTheRebuildAgrees() {
+        String a = accountService.createAccount(client(), AccountType.CHECKING).getAccountNumber();
+        String b = accountService.createAccount(client(), AccountType.SAVINGS).getAccountNumber();
+        accountService.deposit(a, Money.of("100.00"));
+        accountService.deposit(a, Money.of("50.00"));
+        accountService.withdraw(a, Money.of("20.00"));
+        accountService.transfer(a, b, Money.of("30.00"));
+        accountService.transferBatch(List.of(leg(a, b, "5.00"), leg(b, a, "1.00"), leg(a, b, "1000.00")), BatchTransferRequest.Mode.PER_LEG);
+        balanceStripes.configure(b, 4);
+        for (int i = 0; i < 10; i++) {
+            accountService.deposit(b, Money.of("2.00"));
+        }
+        // written behind the service's back: only the rebuild sees it
+        Account account = accountRepository.findByAccountNumber(a).orElseThrow();
+        Transaction old = new Transaction();
+        old.setType(TransactionType.DEPOSIT);
+        old.setAmount(Money.of("7.00"));
+        old.setDestinationAccount(account);
+        old.setTimestamp(LocalDateTime.of(2023, 6, 10, 9, 0));
+        transactionRepository.save(old);
+
+        LocalDate today = LocalDate.now();
+        List<ActivitySummary> days = accountService.getActivitySummary(a, ActivitySummary.Granularity.DAY, today.minusDays(30), today);
+        assertEquals(1, days.size());
+        ActivitySummary day = days.get(0);
+        assertEquals(today, day.getPeriod());
+        assertEquals(2, day.getDepositCount());
+        assertEquals(Money.of("150.00"), day.getDepositTotal());
+        assertEquals(1, day.getWithdrawalCount());
+        assertEquals(Money.of("20.00"), day.getWithdrawalTotal());
+        assertEquals(2, day.getTransferOutCount());
+        assertEquals(Money.of("35.00"), day.getTransferOutTotal());
+        assertEquals(1, day.getTransferInCount());
+        assertEquals(Money.of("1.00"), day.getTransferInTotal());
+
+        // the hot account's deposits sit on several rows of the day; the summary adds them up
+        ActivitySummary hot = accountService.getActivitySummary(b, ActivitySummary.Granularity.MONTH, today, today).get(0);
+        assertEquals(today.withDayOfMonth(1), hot.getPeriod());
+        assertEquals(10, hot.getDepositCount());
+        assertEquals(Money.of("20.00"), hot.getDepositTotal());
+        assertEquals(2, hot.getTransferInCount());
+        assertEquals(Money.of("35.00"), hot.getTransferInTotal());
+
+        LocalDate since = LocalDate.of(2023, 1, 1);
+        List<ActivitySummary> monthsA = accountService.getActivitySummary(a, ActivitySummary.Granularity.MONTH, since, today);
+        List<ActivitySummary> monthsB = accountService.getActivitySummary(b, ActivitySummary.Granularity.MONTH, since, today);
+        assertEquals(1, monthsA.size());
+
+        activityRepository.deleteAll();
+        assertTrue(accountService.getActivitySummary(a, ActivitySummary.Granularity.MONTH, since, today).isEmpty());
+        assertTrue(activityRollups.rebuild() > 0);
+
+        List<ActivitySummary> rebuilt = accountService.getActivitySummary(a, ActivitySummary.Granularity.MONTH, since, today);
+        assertEquals(2, rebuilt.size());
+        assertEquals(LocalDate.of(2023, 6, 1), rebuilt.get(0).getPeriod());
+        assertEquals(Money.of("7.00"), rebuilt.get(0).getDepositTotal());
+        assertEquals(monthsA.get(0), rebuilt.get(1));
+        assertEquals(monthsB, accountService.getActivitySummary(b, ActivitySummary.Granularity.MONTH, since, today));
+
+        // rows dropped by the rebuild are created again by the next movement
+        accountService.deposit(a, Money.of("1.00"));
+        assertEquals(3, accountService.getActivitySummary(a, ActivitySummary.Granularity.DAY, today, today).get(0).getDepositCount());
+    }
+
+    private static TransferRequest leg(String from, String to, String amount) {
+        TransferRequest leg = new TransferRequest();
+        leg.setFromAccount(from);
+        leg.setToAccount(to);
+        leg.setAmount(Money.of(amount));
+        return leg;
+    }
+
+    private Long client() {
+        Client client = new Client();
+        client.setFirstName("Busy");
+        client.setLastName("Account");
+        client.setBirthDate(LocalDate.of(1985, 5, 5));
+        client.setGender("F");
+        client.setAddress("Here");
+        client.setPhone("+33333333333");
+        client.setEmail("activity" + System.nanoTime() + "@example.com");
+        client.setNationality("FR");
+        return clientRepository.save(client).getId();
+    }
+}
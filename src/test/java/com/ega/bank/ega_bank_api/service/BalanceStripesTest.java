@@ -0,0 +1,94 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.exception.InsufficientFundsException;
+import com.ega.bank.ega_bank_api.model.Account;
+import com.ega.bank.ega_bank_api.model.AccountType;
+import com.ega.bank.ega_bank_api.model.Client;
+import com.ega.bank.ega_bank_api.model.Money;
+import com.ega.bank.ega_bank_api.repository.AccountRepository;
+import com.ega.bank.ega_bank_api.repository.ClientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class BalanceStripesTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 50;
+
+    @Autowired
+    private BalanceStripes balanceStripes;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+
+    @Test
+    void stripedDepositsAddUpAndDebitsConsolidate() throws Exception {
+        String number = accountService.createAccount(client(), AccountType.CHECKING).getAccountNumber();
+        accountService.deposit(number, Money.of("3.00"));
+        balanceStripes.configure(number, 8);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        accountService.deposit(number, Money.of("1.00"));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Money expected = Money.of("403.00");
+        Account account = accountService.findByAccountNumber(number).orElseThrow();
+        assertEquals(expected, account.getBalance());
+        // deposits went to the stripes, not to the row
+        assertEquals(Money.of("3.00"), accountRepository.findBalanceById(account.getId()));
+        assertEquals(expected, balanceCheckpointService.balanceAsOf(account.getId(), LocalDateTime.now()));
+
+        // more than the row holds: the stripes are folded in first
+        accountService.withdraw(number, Money.of("400.00"));
+        assertEquals(Money.of("3.00"), accountService.findByAccountNumber(number).orElseThrow().getBalance());
+        assertThrows(InsufficientFundsException.class, () -> accountService.withdraw(number, Money.of("3.01")));
+
+        accountService.deposit(number, Money.of("2.00"));
+        Account cold = balanceStripes.configure(number, 0);
+        assertEquals(0, cold.getStripes());
+        assertEquals(Money.of("5.00"), accountRepository.findBalanceById(account.getId()));
+    }
+
+    private Long client() {
+        Client client = new Client();
+        client.setFirstName("Hot");
+        client.setLastName("Account");
+        client.setBirthDate(LocalDate.of(1990, 1, 1));
+        client.setGender("F");
+        client.setAddress("Here");
+        client.setPhone("+33111111111");
+        client.setEmail("hot" + System.nanoTime() + "@example.com");
+        client.setNationality("FR");
+        return clientRepository.save(client).getId();
+    }
+}
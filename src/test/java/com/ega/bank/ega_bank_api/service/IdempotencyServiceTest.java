@@ -0,0 +1,56 @@
+package com.ega.bank.ega_bank_api.service;
+
+import com.ega.bank.ega_bank_api.model.IdempotencyRecord;
+import com.ega.bank.ega_bank_api.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Test
+    void expiredKeyNotYetPurgedRunsTheRequestAgain() throws Exception {
+        String key = "expired-" + System.nanoTime();
+        // no authentication in this test: keys are scoped to "anonymous"
+        LocalDateTime then = LocalDateTime.now().minusDays(2);
+        repository.saveAndFlush(new IdempotencyRecord("anonymous:" + key, sha256("deposit 1"), "\"old\"", then, then.plusDays(1)));
+        AtomicInteger runs = new AtomicInteger();
+
+        ResponseEntity<?> first = idempotencyService.execute(key, "deposit 1", () -> "new " + runs.incrementAndGet());
+        assertEquals("new 1", first.getBody());
+        assertNull(first.getHeaders().getFirst("Idempotent-Replayed"));
+        IdempotencyRecord stored = repository.findById("anonymous:" + key).orElseThrow();
+        assertEquals("\"new 1\"", stored.getResponseBody());
+        assertTrue(stored.getExpiresAt().isAfter(LocalDateTime.now()));
+
+        // the new record is replayed as usual
+        ResponseEntity<?> retry = idempotencyService.execute(key, "deposit 1", () -> "new " + runs.incrementAndGet());
+        assertEquals("true", retry.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals("\"new 1\"", retry.getBody());
+        assertEquals(1, runs.get());
+
+        // an expired key is free for another request too
+        String other = "expired-" + System.nanoTime();
+        repository.saveAndFlush(new IdempotencyRecord("anonymous:" + other, sha256("withdraw 2"), "\"old\"", then, then.plusDays(1)));
+        assertEquals("new 2", idempotencyService.execute(other, "deposit 1", () -> "new " + runs.incrementAndGet()).getBody());
+    }
+
+    private static String sha256(String value) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+}